@@ -0,0 +1,175 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class BenchmarkDataset {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final long SEED = 20230601L;
+    private static final int MPA_COUNT = 5;
+    private static final int GENRE_COUNT = 6;
+    private static final double FRIENDS_POWER_LAW_EXPONENT = 2.5;
+    private static final String INSERT_USER =
+            "INSERT INTO USERS (EMAIL, NAME, LOGIN, BIRTHDAY) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FILM =
+            "INSERT INTO FILMS (NAME, DESCRIPTION, RELEASEDATE, DURATION, MPA_ID) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_FILM_GENRE = "INSERT INTO FILMS_GENRE (FILM_ID, GENRE_ID) VALUES (?, ?)";
+    private static final String INSERT_LIKE = "INSERT INTO LIKES (FILM_ID, USER_ID) VALUES (?, ?)";
+    private static final String INSERT_FRIENDSHIP =
+            "INSERT INTO FRIENDSHIP (FIRST_USER_ID, SECOND_USER_ID, STATUS) VALUES (?, ?, ?)";
+    private static final String UPDATE_LIKES_COUNT = "UPDATE FILMS f SET LIKES_COUNT = " +
+            "(SELECT COUNT(*) FROM LIKES l WHERE l.FILM_ID = f.FILM_ID)";
+    private static final String SELECT_MIN_USER_ID = "SELECT MIN(USER_ID) FROM USERS";
+    private static final String SELECT_MIN_FILM_ID = "SELECT MIN(FILM_ID) FROM FILMS";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int users;
+    private final int films;
+    private final int likesPerUser;
+    private final int friendsPerUser;
+    private final boolean powerLawFriends;
+    private long firstUserId;
+    private long firstFilmId;
+
+    public static BenchmarkDataset ofScale(JdbcTemplate jdbcTemplate, int scale, int likesPerUser, int friendsPerUser) {
+        return new BenchmarkDataset(jdbcTemplate, scale, Math.max(scale / 10, 1), likesPerUser, friendsPerUser, false);
+    }
+
+    public static BenchmarkDataset ofPowerLawFriends(JdbcTemplate jdbcTemplate, int scale, int likesPerUser,
+                                                     int friendsPerUser) {
+        return new BenchmarkDataset(jdbcTemplate, scale, Math.max(scale / 10, 1), likesPerUser, friendsPerUser, true);
+    }
+
+    public void seed() {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(SEED);
+        seedUsers();
+        seedFilms(random);
+        seedLikes(random);
+        long friendships = seedFriendships(random);
+        jdbcTemplate.update(UPDATE_LIKES_COUNT);
+        log.info("Тестовые данные: пользователей {}, фильмов {}, лайков {}, дружб {} за {} мс",
+                users, films, (long) users * likesPerUser, friendships,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public long randomUserId(SplittableRandom random) {
+        return firstUserId + random.nextInt(users);
+    }
+
+    public long randomFilmId(SplittableRandom random) {
+        return firstFilmId + random.nextInt(films);
+    }
+
+    private void seedUsers() {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        Date birthday = Date.valueOf(LocalDate.of(1990, 1, 1));
+        for (int i = 0; i < users; i++) {
+            batch.add(new Object[]{"user" + i + "@bench.ru", "User " + i, "user" + i, birthday});
+            flushIfFull(INSERT_USER, batch);
+        }
+        flush(INSERT_USER, batch);
+        firstUserId = jdbcTemplate.queryForObject(SELECT_MIN_USER_ID, Long.class);
+    }
+
+    private void seedFilms(SplittableRandom random) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        Date releaseDate = Date.valueOf(LocalDate.of(2000, 1, 1));
+        for (int i = 0; i < films; i++) {
+            batch.add(new Object[]{"Film " + i, "Description " + i, releaseDate,
+                    90 + random.nextInt(60), 1 + random.nextInt(MPA_COUNT)});
+            flushIfFull(INSERT_FILM, batch);
+        }
+        flush(INSERT_FILM, batch);
+        firstFilmId = jdbcTemplate.queryForObject(SELECT_MIN_FILM_ID, Long.class);
+        for (int i = 0; i < films; i++) {
+            int firstGenre = 1 + random.nextInt(GENRE_COUNT);
+            batch.add(new Object[]{firstFilmId + i, firstGenre});
+            if (random.nextBoolean()) {
+                batch.add(new Object[]{firstFilmId + i, 1 + firstGenre % GENRE_COUNT});
+            }
+            flushIfFull(INSERT_FILM_GENRE, batch);
+        }
+        flush(INSERT_FILM_GENRE, batch);
+    }
+
+    private void seedLikes(SplittableRandom random) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        int likes = Math.min(likesPerUser, films);
+        Set<Long> liked = new HashSet<>();
+        for (int i = 0; i < users; i++) {
+            liked.clear();
+            while (liked.size() < likes) {
+                long filmId = firstFilmId + skewed(random, films);
+                if (liked.add(filmId)) {
+                    batch.add(new Object[]{filmId, firstUserId + i});
+                }
+            }
+            flushIfFull(INSERT_LIKE, batch);
+        }
+        flush(INSERT_LIKE, batch);
+    }
+
+    private long seedFriendships(SplittableRandom random) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        Set<Long> added = new HashSet<>();
+        long friendships = 0;
+        for (int i = 0; i < users; i++) {
+            long userId = firstUserId + i;
+            int friends = friendDegree(random);
+            friendships += friends;
+            added.clear();
+            while (added.size() < friends) {
+                long friendId = firstUserId + skewed(random, users);
+                if (friendId != userId && added.add(friendId)) {
+                    batch.add(new Object[]{userId, friendId, random.nextBoolean()});
+                }
+            }
+            flushIfFull(INSERT_FRIENDSHIP, batch);
+        }
+        flush(INSERT_FRIENDSHIP, batch);
+        return friendships;
+    }
+
+    private int friendDegree(SplittableRandom random) {
+        int maxFriends = users - 1;
+        if (!powerLawFriends) {
+            return Math.min(friendsPerUser, maxFriends);
+        }
+        double minDegree = friendsPerUser * (FRIENDS_POWER_LAW_EXPONENT - 2) / (FRIENDS_POWER_LAW_EXPONENT - 1);
+        double degree = minDegree * Math.pow(1 - random.nextDouble(), -1 / (FRIENDS_POWER_LAW_EXPONENT - 1));
+        return (int) Math.max(1, Math.min(degree, Math.max(maxFriends / 10, 1)));
+    }
+
+    private int skewed(SplittableRandom random, int bound) {
+        double value = random.nextDouble();
+        return (int) (bound * value * value * value);
+    }
+
+    private void flushIfFull(String sql, List<Object[]> batch) {
+        if (batch.size() >= BATCH_SIZE) {
+            flush(sql, batch);
+        }
+    }
+
+    private void flush(String sql, List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+}
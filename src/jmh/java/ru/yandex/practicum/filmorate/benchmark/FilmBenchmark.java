@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FilmBenchmark {
+
+    @State(Scope.Thread)
+    public static class FilmState {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private FilmService filmService;
+        private FilmStorage filmDbStorage;
+        private BenchmarkDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            filmService = state.getBean(FilmService.class);
+            filmDbStorage = state.getBean("FilmDbStorage", FilmStorage.class);
+            dataset = state.getDataset();
+        }
+    }
+
+    @Benchmark
+    public List<Film> popularFilms(FilmState state) {
+        return state.filmService.sortFilmByLike("10");
+    }
+
+    @Benchmark
+    public List<Film> popularFilmsFromDb(FilmState state) {
+        return state.filmDbStorage.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public Optional<Film> filmById(FilmState state) {
+        return state.filmService.findFilmById(String.valueOf(state.dataset.randomFilmId(state.random)));
+    }
+
+    @Benchmark
+    public Optional<Film> filmByIdFromDb(FilmState state) {
+        return state.filmDbStorage.findFilmWithDetailsById(state.dataset.randomFilmId(state.random));
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.service.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.like.LikeIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class FilmorateState {
+
+    @Param({"10000", "100000", "1000000"})
+    public int scale;
+
+    @Param({"5"})
+    public int likesPerUser;
+
+    @Param({"10"})
+    public int friendsPerUser;
+
+    private ConfigurableApplicationContext context;
+    private BenchmarkDataset dataset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(webApplicationType())
+                .properties(properties().toArray(new String[0]))
+                .run();
+        dataset = createDataset(context.getBean(JdbcTemplate.class));
+        dataset.seed();
+        context.getBean(FilmLeaderboard.class).rebuild();
+        context.getBean(LikeIndex.class).rebuild();
+        context.getBean(FriendshipGraph.class).rebuild();
+        context.getBean(FilmCache.class).clear();
+    }
+
+    protected BenchmarkDataset createDataset(JdbcTemplate jdbcTemplate) {
+        return BenchmarkDataset.ofScale(jdbcTemplate, scale, likesPerUser, friendsPerUser);
+    }
+
+    protected WebApplicationType webApplicationType() {
+        return WebApplicationType.NONE;
+    }
+
+    protected List<String> properties() {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=jdbc:h2:mem:filmorate-bench-" + scale + ";QUERY_CACHE_SIZE=64");
+        properties.add("logging.level.root=WARN");
+        properties.add("spring.main.banner-mode=off");
+        return properties;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T getBean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    public String getProperty(String key) {
+        return context.getEnvironment().getProperty(key);
+    }
+
+    public BenchmarkDataset getDataset() {
+        return dataset;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendSuggestions;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FriendSuggestionsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class PowerLawState extends FilmorateState {
+
+        @Param({"0", "10000"})
+        public int cacheSize;
+
+        @Override
+        protected BenchmarkDataset createDataset(JdbcTemplate jdbcTemplate) {
+            return BenchmarkDataset.ofPowerLawFriends(jdbcTemplate, scale, likesPerUser, friendsPerUser);
+        }
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = super.properties();
+            properties.add("filmorate.friends.suggestions.cache-size=" + cacheSize);
+            return properties;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private FriendSuggestions friendSuggestions;
+        private UserService userService;
+        private BenchmarkDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp(PowerLawState state) {
+            friendSuggestions = state.getBean(FriendSuggestions.class);
+            userService = state.getBean(UserService.class);
+            dataset = state.getDataset();
+        }
+    }
+
+    @Benchmark
+    public long[] suggestionIds(ClientState state) {
+        return state.friendSuggestions.suggest(state.dataset.randomUserId(state.random), 10);
+    }
+
+    @Benchmark
+    public List<User> suggestions(ClientState state) {
+        return state.userService.suggestFriends(String.valueOf(state.dataset.randomUserId(state.random)), 10);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FriendsPopularFilms;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FriendsPopularFilmsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class PowerLawState extends FilmorateState {
+
+        @Param({"500", "2000"})
+        public int maxFriends;
+
+        @Override
+        protected BenchmarkDataset createDataset(JdbcTemplate jdbcTemplate) {
+            return BenchmarkDataset.ofPowerLawFriends(jdbcTemplate, scale, likesPerUser, friendsPerUser);
+        }
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = super.properties();
+            properties.add("filmorate.friends.popular-films.max-friends=" + maxFriends);
+            return properties;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private FriendsPopularFilms friendsPopularFilms;
+        private FilmService filmService;
+        private BenchmarkDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp(PowerLawState state) {
+            friendsPopularFilms = state.getBean(FriendsPopularFilms.class);
+            filmService = state.getBean(FilmService.class);
+            dataset = state.getDataset();
+        }
+    }
+
+    @Benchmark
+    public long[] popularFilmIds(ClientState state) {
+        return state.friendsPopularFilms.findPopular(state.dataset.randomUserId(state.random), 10);
+    }
+
+    @Benchmark
+    public List<Film> popularWithFriends(ClientState state) {
+        return state.filmService.findPopularWithFriends(String.valueOf(state.dataset.randomUserId(state.random)), "10");
+    }
+}
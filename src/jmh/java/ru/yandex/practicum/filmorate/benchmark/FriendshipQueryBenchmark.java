@@ -0,0 +1,130 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class FriendshipQueryBenchmark {
+
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final String CREATE_UNINDEXED_COPY =
+            "CREATE TABLE FRIENDSHIP_UNINDEXED AS SELECT * FROM FRIENDSHIP";
+    private static final String DROP_UNINDEXED_COPY = "DROP TABLE IF EXISTS FRIENDSHIP_UNINDEXED";
+    private static final String SELECT_SAMPLE =
+            "SELECT FIRST_USER_ID, SECOND_USER_ID FROM FRIENDSHIP ORDER BY RAND() LIMIT " + SAMPLE_SIZE;
+    private static final String SELECT_FRIENDS_UNINDEXED =
+            "SELECT SECOND_USER_ID FROM FRIENDSHIP_UNINDEXED WHERE FIRST_USER_ID = ? " +
+                    "UNION SELECT FIRST_USER_ID FROM FRIENDSHIP_UNINDEXED WHERE SECOND_USER_ID = ? AND STATUS = TRUE";
+    private static final String SELECT_FRIENDS_INDEXED =
+            "SELECT SECOND_USER_ID FROM FRIENDSHIP WHERE FIRST_USER_ID = ? " +
+                    "UNION SELECT FIRST_USER_ID FROM FRIENDSHIP WHERE SECOND_USER_ID = ? AND STATUS = TRUE";
+    private static final String SELECT_STATUS_OR_UNINDEXED =
+            "SELECT STATUS FROM FRIENDSHIP_UNINDEXED WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
+                    "OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+    private static final String SELECT_STATUS_OR_INDEXED =
+            "SELECT STATUS FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
+                    "OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+    private static final String SELECT_STATUS_UNION_ALL_INDEXED =
+            "SELECT STATUS FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
+                    "UNION ALL SELECT STATUS FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+    private static final String UPDATE_STATUS_OR_UNINDEXED =
+            "UPDATE FRIENDSHIP_UNINDEXED SET STATUS = ? WHERE FIRST_USER_ID = ? " +
+                    "AND SECOND_USER_ID = ? OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+    private static final String UPDATE_STATUS_INDEXED =
+            "UPDATE FRIENDSHIP SET STATUS = ? WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+
+    @State(Scope.Benchmark)
+    public static class FriendshipTables {
+        private JdbcTemplate jdbcTemplate;
+        private long[][] edges;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            jdbcTemplate = state.getBean(JdbcTemplate.class);
+            jdbcTemplate.execute(DROP_UNINDEXED_COPY);
+            jdbcTemplate.execute(CREATE_UNINDEXED_COPY);
+            edges = jdbcTemplate.query(SELECT_SAMPLE, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)})
+                    .toArray(new long[0][]);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            jdbcTemplate.execute(DROP_UNINDEXED_COPY);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EdgeState {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        private long[] randomEdge(FriendshipTables tables) {
+            return tables.edges[random.nextInt(tables.edges.length)];
+        }
+    }
+
+    @Benchmark
+    public List<Long> friendsWithoutIndexes(FriendshipTables tables, EdgeState state) {
+        long userId = state.randomEdge(tables)[0];
+        return tables.jdbcTemplate.queryForList(SELECT_FRIENDS_UNINDEXED, Long.class, userId, userId);
+    }
+
+    @Benchmark
+    public List<Long> friendsWithIndexes(FriendshipTables tables, EdgeState state) {
+        long userId = state.randomEdge(tables)[0];
+        return tables.jdbcTemplate.queryForList(SELECT_FRIENDS_INDEXED, Long.class, userId, userId);
+    }
+
+    @Benchmark
+    public List<Boolean> statusOrWithoutIndexes(FriendshipTables tables, EdgeState state) {
+        long[] edge = state.randomEdge(tables);
+        return tables.jdbcTemplate.queryForList(SELECT_STATUS_OR_UNINDEXED, Boolean.class,
+                edge[0], edge[1], edge[1], edge[0]);
+    }
+
+    @Benchmark
+    public List<Boolean> statusOrWithIndexes(FriendshipTables tables, EdgeState state) {
+        long[] edge = state.randomEdge(tables);
+        return tables.jdbcTemplate.queryForList(SELECT_STATUS_OR_INDEXED, Boolean.class,
+                edge[0], edge[1], edge[1], edge[0]);
+    }
+
+    @Benchmark
+    public List<Boolean> statusUnionAllWithIndexes(FriendshipTables tables, EdgeState state) {
+        long[] edge = state.randomEdge(tables);
+        return tables.jdbcTemplate.queryForList(SELECT_STATUS_UNION_ALL_INDEXED, Boolean.class,
+                edge[0], edge[1], edge[1], edge[0]);
+    }
+
+    @Benchmark
+    public int updateStatusOrWithoutIndexes(FriendshipTables tables, EdgeState state) {
+        long[] edge = state.randomEdge(tables);
+        return tables.jdbcTemplate.update(UPDATE_STATUS_OR_UNINDEXED, true, edge[0], edge[1], edge[1], edge[0]);
+    }
+
+    @Benchmark
+    public int[] updateStatusBatchWithIndexes(FriendshipTables tables, EdgeState state) {
+        long[] edge = state.randomEdge(tables);
+        return tables.jdbcTemplate.batchUpdate(UPDATE_STATUS_INDEXED, List.of(
+                new Object[]{true, edge[0], edge[1]},
+                new Object[]{true, edge[1], edge[0]}));
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.ImportService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ImportBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @State(Scope.Thread)
+    public static class ImportState {
+        private ImportService importService;
+        private long batch;
+        private byte[] usersCsv;
+        private byte[] filmsNdjson;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            importService = state.getBean(ImportService.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void nextBatch() {
+            batch++;
+            StringBuilder users = new StringBuilder("email,login,name,birthday\n");
+            StringBuilder films = new StringBuilder();
+            for (int i = 0; i < ROWS; i++) {
+                String key = batch + "x" + i;
+                users.append("import").append(key).append("@yandex.ru,import").append(key)
+                        .append(",Import,1990-01-01\n");
+                films.append("{\"name\":\"Import ").append(key)
+                        .append("\",\"description\":\"Import\",\"releaseDate\":\"2000-01-01\",\"duration\":90,")
+                        .append("\"mpa\":{\"id\":1},\"genres\":[{\"id\":1},{\"id\":2}]}\n");
+            }
+            usersCsv = users.toString().getBytes(StandardCharsets.UTF_8);
+            filmsNdjson = films.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportReport importUsersCsv(ImportState state) throws IOException {
+        return state.importService.importCsv("users", new ByteArrayInputStream(state.usersCsv));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportReport importFilmsNdjson(ImportState state) throws IOException {
+        return state.importService.importNdjson("films", new ByteArrayInputStream(state.filmsNdjson));
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class LikeBenchmark {
+
+    private static final AtomicInteger LIKERS = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class LikeState {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private FilmService filmService;
+        private UserStorage userStorage;
+        private BenchmarkDataset dataset;
+        private User liker;
+        private String likerId;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            filmService = state.getBean(FilmService.class);
+            userStorage = state.getBean(UserStorage.class);
+            dataset = state.getDataset();
+            int number = LIKERS.incrementAndGet();
+            liker = userStorage.addUser(new User(null, "liker" + number + "@bench.ru", "Liker " + number,
+                    "liker" + number, LocalDate.of(1990, 1, 1)));
+            likerId = String.valueOf(liker.getId());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            userStorage.deleteUser(liker);
+        }
+    }
+
+    @Benchmark
+    public Film likeAndUnlike(LikeState state) {
+        String filmId = String.valueOf(state.dataset.randomFilmId(state.random));
+        state.filmService.addLikeFilm(filmId, state.likerId);
+        return state.filmService.removeLikeFilm(filmId, state.likerId);
+    }
+}
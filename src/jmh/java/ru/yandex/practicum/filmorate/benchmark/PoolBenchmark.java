@@ -0,0 +1,93 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class PoolBenchmark {
+
+    private static final AtomicInteger LIKERS = new AtomicInteger();
+
+    @State(Scope.Benchmark)
+    public static class PoolState extends FilmorateState {
+
+        @Param({"2", "4", "8", "16", "32"})
+        public int poolSize;
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = super.properties();
+            properties.add("spring.datasource.hikari.maximum-pool-size=" + poolSize);
+            properties.add("spring.datasource.hikari.minimum-idle=" + poolSize);
+            return properties;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        private final SplittableRandom random = new SplittableRandom();
+        private FilmService filmService;
+        private FilmStorage filmDbStorage;
+        private UserStorage userStorage;
+        private BenchmarkDataset dataset;
+        private User liker;
+        private String likerId;
+
+        @Setup(Level.Trial)
+        public void setUp(PoolState state) {
+            filmService = state.getBean(FilmService.class);
+            filmDbStorage = state.getBean("FilmDbStorage", FilmStorage.class);
+            userStorage = state.getBean(UserStorage.class);
+            dataset = state.getDataset();
+            int number = LIKERS.incrementAndGet();
+            liker = userStorage.addUser(new User(null, "client" + number + "@bench.ru", "Client " + number,
+                    "client" + number, LocalDate.of(1990, 1, 1)));
+            likerId = String.valueOf(liker.getId());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            userStorage.deleteUser(liker);
+        }
+    }
+
+    @Benchmark
+    public Film likeAndUnlike(ClientState state) {
+        String filmId = String.valueOf(state.dataset.randomFilmId(state.random));
+        state.filmService.addLikeFilm(filmId, state.likerId);
+        return state.filmService.removeLikeFilm(filmId, state.likerId);
+    }
+
+    @Benchmark
+    public List<Film> popularFilmsFromDb(ClientState state) {
+        return state.filmDbStorage.getPopularFilms(10);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ThreadModelBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class ServerState extends FilmorateState {
+
+        @Param({"false", "true"})
+        public boolean virtualThreads;
+
+        @Param({"200"})
+        public int tomcatThreads;
+
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        private volatile String baseUrl;
+
+        @Override
+        protected WebApplicationType webApplicationType() {
+            return WebApplicationType.SERVLET;
+        }
+
+        @Override
+        protected List<String> properties() {
+            List<String> properties = super.properties();
+            properties.add("server.port=0");
+            properties.add("server.tomcat.threads.max=" + tomcatThreads);
+            properties.add("filmorate.virtual-threads.enabled=" + virtualThreads);
+            return properties;
+        }
+
+        private int get(String path) throws IOException, InterruptedException {
+            if (baseUrl == null) {
+                baseUrl = "http://localhost:" + getProperty("local.server.port");
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public int popularFilms(ServerState server) throws IOException, InterruptedException {
+        return server.get("/films/popular?count=10");
+    }
+
+    @Benchmark
+    public int filmById(ServerState server, ClientState client) throws IOException, InterruptedException {
+        return server.get("/films/" + server.getDataset().randomFilmId(client.random));
+    }
+
+    @Benchmark
+    public int friends(ServerState server, ClientState client) throws IOException, InterruptedException {
+        return server.get("/users/" + server.getDataset().randomUserId(client.random) + "/friends");
+    }
+}
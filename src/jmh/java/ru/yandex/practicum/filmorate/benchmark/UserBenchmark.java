@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipGraph;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class UserBenchmark {
+
+    @State(Scope.Thread)
+    public static class UserState {
+        private final SplittableRandom random = new SplittableRandom(42);
+        private UserService userService;
+        private FriendshipGraph friendshipGraph;
+        private BenchmarkDataset dataset;
+
+        @Setup(Level.Trial)
+        public void setUp(FilmorateState state) {
+            userService = state.getBean(UserService.class);
+            friendshipGraph = state.getBean(FriendshipGraph.class);
+            dataset = state.getDataset();
+        }
+
+        private String randomUserId() {
+            return String.valueOf(dataset.randomUserId(random));
+        }
+    }
+
+    @Benchmark
+    public List<User> friends(UserState state) {
+        return state.userService.friendsList(state.randomUserId());
+    }
+
+    @Benchmark
+    public List<User> mutualFriends(UserState state) {
+        return state.userService.mutualFriends(state.randomUserId(), state.randomUserId());
+    }
+
+    @Benchmark
+    public long[] friendshipPath(UserState state) {
+        return state.friendshipGraph.findPath(state.dataset.randomUserId(state.random),
+                state.dataset.randomUserId(state.random), 6, 200_000);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.yandex.practicum.filmorate.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.AbstractDriverBasedDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@Configuration
+public class R2dbcConfiguration implements DisposableBean {
+
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(DataSource dataSource,
+                                         @Value("${filmorate.r2dbc.pool.max-size:10}") int maxSize,
+                                         @Value("${filmorate.r2dbc.pool.max-acquire-time:5s}")
+                                         Duration maxAcquireTime)
+            throws SQLException {
+        ConnectionPoolConfiguration configuration = ConnectionPoolConfiguration
+                .builder(new H2ConnectionFactory(sameDatabaseAs(dataSource)))
+                .name("filmorate-r2dbc")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build();
+        connectionPool = new ConnectionPool(configuration);
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    private static H2ConnectionConfiguration sameDatabaseAs(DataSource dataSource) throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            return h2(hikari.getJdbcUrl(), hikari.getUsername(), hikari.getPassword());
+        }
+        if (dataSource.isWrapperFor(AbstractDriverBasedDataSource.class)) {
+            AbstractDriverBasedDataSource driver = dataSource.unwrap(AbstractDriverBasedDataSource.class);
+            return h2(driver.getUrl(), driver.getUsername(), driver.getPassword());
+        }
+        throw new IllegalStateException("Не удалось определить базу данных для реактивного доступа: " + dataSource);
+    }
+
+    private static H2ConnectionConfiguration h2(String jdbcUrl, String username, String password) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith(H2_JDBC_PREFIX)) {
+            throw new IllegalStateException("Реактивный доступ поддерживается только для H2, адрес БД: " + jdbcUrl);
+        }
+        H2ConnectionConfiguration.Builder builder = H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring(H2_JDBC_PREFIX.length()));
+        if (username != null) {
+            builder.username(username);
+        }
+        if (password != null) {
+            builder.password(password);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "filmorate.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfiguration implements WebMvcConfigurer, DisposableBean {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    @Bean
+    public AsyncTaskExecutor virtualThreadTaskExecutor() {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(
+            @Value("${filmorate.virtual-threads.db-permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${filmorate.virtual-threads.db-wait-timeout:5s}") Duration waitTimeout) {
+        return new ConnectionLimitingPostProcessor(permits, waitTimeout);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(virtualThreadTaskExecutor());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        virtualThreadExecutor.shutdown();
+        if (!virtualThreadExecutor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Виртуальные потоки не завершились за {}, задачи прерываются", SHUTDOWN_TIMEOUT);
+            virtualThreadExecutor.shutdownNow();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class ConnectionLimitingPostProcessor implements BeanPostProcessor, Ordered {
+        private final int permits;
+        private final Duration waitTimeout;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                log.info("Одновременных обращений к БД не больше {}, ожидание до {}", permits, waitTimeout);
+                return new ConnectionLimitingDataSource((DataSource) bean, permits, waitTimeout);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            log.info("Запросы обрабатываются в виртуальных потоках");
+            return executor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Виртуальные потоки доступны начиная с Java 21, текущая версия "
+                    + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+}
@@ -1,29 +1,50 @@
 package ru.yandex.practicum.filmorate.controllers;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.ObjectNotFoundException;
+import ru.yandex.practicum.filmorate.exception.QueryBudgetExceededException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 
+import java.util.stream.Collectors;
+
 
 @RestControllerAdvice
 @Slf4j
+@RequiredArgsConstructor
 class ExceptionHandlers {
 
     private static final String OBJECT_NOT_FOUND = "Получен статус 404 Object not found {}";
+    private static final String VALIDATION_FAILURES = "filmorate.validation.failures";
+
+    private final MeterRegistry meterRegistry;
 
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMyValidationException(final ValidationException e) {
         log.debug("Получен статус 400 Object validation error {}", e.getMessage(), e);
+        meterRegistry.counter(VALIDATION_FAILURES, "source", "validator").increment();
         return new ErrorResponse("400", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBindException(final BindException e) {
+        log.debug("Получен статус 400 Bean validation error {}", e.getMessage(), e);
+        meterRegistry.counter(VALIDATION_FAILURES, "source", "bean-validation").increment();
+        return new ErrorResponse("400", e.getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining("; ")));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ErrorResponse handleUserNotFoundException(final UserNotFoundException e) {
@@ -45,6 +66,13 @@ class ExceptionHandlers {
         return new ErrorResponse("404", e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ErrorResponse handleQueryBudgetExceededException(final QueryBudgetExceededException e) {
+        log.debug("Получен статус 500 Query budget exceeded {}", e.getMessage(), e);
+        return new ErrorResponse("500", e.getMessage());
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleThrowable(final Throwable e) {
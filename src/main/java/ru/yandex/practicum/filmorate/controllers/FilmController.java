@@ -1,8 +1,12 @@
 package ru.yandex.practicum.filmorate.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmBatchResponse;
 
 import javax.validation.Valid;
 import java.util.Collection;
@@ -17,11 +21,25 @@ import java.util.*;
 public class FilmController {
 
     private final FilmService filmService;
-
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
-    public Collection<Film> findAllFilms() {
-        return filmService.findAllFilms();
+    public Collection<Film> findAllFilms(@RequestParam(required = false) Long afterId,
+                                         @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return filmService.findAllFilms();
+        }
+        return filmService.findFilmsPage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return ndjsonWriter.write(filmService::streamAllFilms);
+    }
+
+    @PostMapping("/batch")
+    public FilmBatchResponse findFilmsByIds(@RequestBody List<Long> ids) {
+        return filmService.findFilmsByIds(ids);
     }
 
     @PostMapping
@@ -56,6 +74,18 @@ public class FilmController {
         return filmService.removeLikeFilm(id, userId);
     }
 
+    @GetMapping("/common")
+    public List<Film> commonFilms(@RequestParam("userId") String userId,
+                                  @RequestParam("friendId") String friendId) {
+        return filmService.findCommonFilms(userId, friendId);
+    }
+
+    @GetMapping("/{id}/similar")
+    public List<Film> similarFilms(@PathVariable("id") String id,
+                                   @RequestParam(required = false) Integer limit) {
+        return filmService.findSimilarFilms(id, limit);
+    }
+
     @GetMapping("/popular")
     public List<Film> popularFilmList(@RequestParam(defaultValue = "10") String count) {
         return filmService.sortFilmByLike(count);
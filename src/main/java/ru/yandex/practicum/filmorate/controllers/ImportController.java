@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.service.ImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/import")
+public class ImportController {
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ImportService importService;
+
+    @PostMapping(value = "/{type}", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ImportReport importNdjson(@PathVariable("type") String type, InputStream body) throws IOException {
+        return importService.importNdjson(type, body);
+    }
+
+    @PostMapping(value = "/{type}", consumes = TEXT_CSV_VALUE)
+    public ImportReport importCsv(@PathVariable("type") String type, InputStream body) throws IOException {
+        return importService.importCsv(type, body);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+class NdjsonWriter {
+
+    private static final int NEW_LINE = '\n';
+
+    private final ObjectMapper objectMapper;
+
+    <T> ResponseEntity<StreamingResponseBody> write(Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                source.accept(item -> writeLine(outputStream, item));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    private void writeLine(OutputStream outputStream, Object item) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(item));
+            outputStream.write(NEW_LINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
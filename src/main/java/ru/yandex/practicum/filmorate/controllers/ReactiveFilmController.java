@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/reactive/films")
+public class ReactiveFilmController {
+
+    private final ReactiveFilmService reactiveFilmService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Film> streamAllFilms() {
+        return reactiveFilmService.streamAllFilms();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<Film> findFilmById(@PathVariable("id") String filmId) {
+        return reactiveFilmService.findFilmById(filmId);
+    }
+
+    @GetMapping("/popular")
+    public Flux<Film> popularFilmList(@RequestParam(defaultValue = "10") String count) {
+        return reactiveFilmService.findPopularFilms(count);
+    }
+}
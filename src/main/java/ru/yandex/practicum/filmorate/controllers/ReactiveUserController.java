@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.controllers;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/reactive/users")
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamAllUsers() {
+        return reactiveUserService.streamAllUsers();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<User> findUserById(@PathVariable("id") String userId) {
+        return reactiveUserService.findUserById(userId);
+    }
+
+    @GetMapping("/{id}/friends")
+    public Flux<User> friendsList(@PathVariable("id") String userId) {
+        return reactiveUserService.friendsList(userId);
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public Flux<User> mutualFriends(@PathVariable("id") String userId,
+                                    @PathVariable("otherId") String otherId) {
+        return reactiveUserService.mutualFriends(userId, otherId);
+    }
+}
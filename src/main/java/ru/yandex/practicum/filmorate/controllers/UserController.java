@@ -1,8 +1,13 @@
 package ru.yandex.practicum.filmorate.controllers;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import javax.validation.Valid;
@@ -16,10 +21,21 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final FilmService filmService;
+    private final NdjsonWriter ndjsonWriter;
 
     @GetMapping
-    public Collection<User> findAllUsers() {
-        return userService.findAllUsers();
+    public Collection<User> findAllUsers(@RequestParam(required = false) Long afterId,
+                                         @RequestParam(required = false) Integer limit) {
+        if (afterId == null && limit == null) {
+            return userService.findAllUsers();
+        }
+        return userService.findUsersPage(afterId, limit);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return ndjsonWriter.write(userService::streamAllUsers);
     }
 
     @PostMapping
@@ -59,6 +75,24 @@ public class UserController {
         return userService.friendsList(id);
     }
 
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> friendshipPath(@PathVariable("id") String id,
+                                     @PathVariable("otherId") String otherId) {
+        return userService.findFriendshipPath(id, otherId);
+    }
+
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> friendSuggestions(@PathVariable("id") String id,
+                                        @RequestParam(required = false) Integer limit) {
+        return userService.suggestFriends(id, limit);
+    }
+
+    @GetMapping("/{id}/films/popular-with-friends")
+    public List<Film> popularWithFriends(@PathVariable("id") String id,
+                                         @RequestParam(defaultValue = "10") String count) {
+        return filmService.findPopularWithFriends(id, count);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> mutualFriends(@PathVariable("id") String id,
                                     @PathVariable("otherId") String otherId) {
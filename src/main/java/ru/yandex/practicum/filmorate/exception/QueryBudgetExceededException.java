@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    public QueryBudgetExceededException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
+import ru.yandex.practicum.filmorate.storage.genre.GenreCachedStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaCachedStorage;
+
+import java.util.function.ToDoubleFunction;
+
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics implements MeterBinder {
+
+    private static final String CACHE_GETS = "filmorate.cache.gets";
+
+    private final ObjectProvider<FilmCache> filmCache;
+    private final ObjectProvider<MpaCachedStorage> mpaCachedStorage;
+    private final ObjectProvider<GenreCachedStorage> genreCachedStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindGets(registry, "films", filmCache, FilmCache::getHits, FilmCache::getMisses);
+        bindGets(registry, "mpa", mpaCachedStorage, MpaCachedStorage::getHits, MpaCachedStorage::getMisses);
+        bindGets(registry, "genres", genreCachedStorage, GenreCachedStorage::getHits, GenreCachedStorage::getMisses);
+        FunctionCounter.builder("filmorate.cache.evictions", this,
+                        metrics -> metrics.filmCache.getObject().getEvictions())
+                .tag("cache", "films")
+                .register(registry);
+        Gauge.builder("filmorate.cache.size", this, metrics -> metrics.filmCache.getObject().size())
+                .tag("cache", "films")
+                .register(registry);
+    }
+
+    private <T> void bindGets(MeterRegistry registry, String cache, ObjectProvider<T> source,
+                              ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder(CACHE_GETS, this, metrics -> hits.applyAsDouble(source.getObject()))
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder(CACHE_GETS, this, metrics -> misses.applyAsDouble(source.getObject()))
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+@Component
+@RequiredArgsConstructor
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final DataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikariDataSource = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+                HikariDataSource.class);
+        if (hikariDataSource == null) {
+            return;
+        }
+        Gauge.builder("filmorate.db.pool.utilization", hikariDataSource, ConnectionPoolMetrics::utilization)
+                .tag("pool", String.valueOf(hikariDataSource.getPoolName()))
+                .register(registry);
+    }
+
+    private static double utilization(HikariDataSource hikariDataSource) {
+        HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return Double.NaN;
+        }
+        return (pool.getActiveConnections() + pool.getThreadsAwaitingConnection())
+                / (double) hikariDataSource.getMaximumPoolSize();
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class MeteredDataSource extends DelegatingDataSource {
+
+    private volatile SqlStatementRecorder recorder;
+
+    public MeteredDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public void attach(SqlStatementRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private void record(String sql, long nanos, boolean success) {
+        SqlStatementRecorder current = recorder;
+        if (current != null) {
+            current.record(sql, nanos, success);
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        if ("equals".equals(method.getName())) {
+            return proxy == args[0];
+        }
+        return System.identityHashCode(proxy);
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return "equals".equals(method.getName()) && method.getParameterCount() == 1
+                || "hashCode".equals(method.getName()) && method.getParameterCount() == 0;
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = MeteredDataSource.invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return wrap(Statement.class, new StatementHandler(result, null));
+                case "prepareStatement":
+                    return wrap(PreparedStatement.class, new StatementHandler(result, (String) args[0]));
+                case "prepareCall":
+                    return wrap(CallableStatement.class, new StatementHandler(result, (String) args[0]));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+
+        private StatementHandler(Object target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return MeteredDataSource.invoke(target, method, args);
+            }
+            String statement = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long started = System.nanoTime();
+            boolean success = false;
+            try {
+                Object result = MeteredDataSource.invoke(target, method, args);
+                success = true;
+                return result;
+            } finally {
+                record(statement, System.nanoTime() - started, success);
+            }
+        }
+    }
+}
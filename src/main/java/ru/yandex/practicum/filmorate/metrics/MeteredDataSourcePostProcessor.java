@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@Component
+@RequiredArgsConstructor
+public class MeteredDataSourcePostProcessor implements BeanPostProcessor, Ordered,
+        ApplicationListener<ContextRefreshedEvent> {
+
+    private final ObjectProvider<SqlStatementRecorder> recorderProvider;
+    private final List<MeteredDataSource> dataSources = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof MeteredDataSource)) {
+            MeteredDataSource dataSource = new MeteredDataSource((DataSource) bean);
+            dataSources.add(dataSource);
+            return dataSource;
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        SqlStatementRecorder recorder = recorderProvider.getIfAvailable();
+        if (recorder != null) {
+            dataSources.forEach(dataSource -> dataSource.attach(recorder));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MethodMetricsAspect {
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(ru.yandex.practicum.filmorate.storage..*) "
+            + "&& @within(org.springframework.stereotype.Repository) && execution(public * *(..))")
+    public Object timeStorage(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("filmorate.storage", joinPoint);
+    }
+
+    @Around("within(ru.yandex.practicum.filmorate.service..*) "
+            + "&& @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("filmorate.service", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NONE;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", joinPoint.getTarget().getClass().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
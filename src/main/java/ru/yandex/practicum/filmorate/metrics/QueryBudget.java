@@ -0,0 +1,58 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.yandex.practicum.filmorate.exception.QueryBudgetExceededException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+
+@Slf4j
+@Component
+public class QueryBudget {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int queryBudget;
+    private final Duration timeBudget;
+    private final boolean strict;
+
+    public QueryBudget(MeterRegistry meterRegistry,
+                       @Value("${filmorate.db.budget.queries:50}") int queryBudget,
+                       @Value("${filmorate.db.budget.time:500ms}") Duration timeBudget,
+                       @Value("${filmorate.db.budget.strict:false}") boolean strict) {
+        this.meterRegistry = meterRegistry;
+        this.queryBudget = queryBudget;
+        this.timeBudget = timeBudget;
+        this.strict = strict;
+    }
+
+    public void check(HttpServletRequest request, QueryStatistics statistics, boolean bodyPending) {
+        if (statistics.isBudgetChecked()) {
+            return;
+        }
+        statistics.markBudgetChecked();
+        if (statistics.getStatements() <= queryBudget && statistics.getNanos() <= timeBudget.toNanos()) {
+            return;
+        }
+        String method = request.getMethod();
+        String uri = uriOf(request);
+        meterRegistry.counter("filmorate.http.queries.over.budget", "method", method, "uri", uri).increment();
+        String message = String.format("Запрос %s %s превысил бюджет БД: %d запросов за %d мс (бюджет %d запросов, %d мс)",
+                method, uri, statistics.getStatements(), statistics.getTime().toMillis(),
+                queryBudget, timeBudget.toMillis());
+        log.warn(message);
+        if (strict && bodyPending) {
+            throw new QueryBudgetExceededException(message);
+        }
+    }
+
+    static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? UNKNOWN_URI : pattern.toString();
+    }
+}
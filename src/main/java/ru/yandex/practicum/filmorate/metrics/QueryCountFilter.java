@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final String REACTIVE_PREFIX = "/reactive/";
+    private static final Set<String> STREAMING_PATHS = Set.of("/films/stream", "/users/stream");
+
+    private final MeterRegistry meterRegistry;
+    private final QueryBudget queryBudget;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return STREAMING_PATHS.contains(path) || path.startsWith(REACTIVE_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryStatistics statistics = QueryStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryStatistics.stop();
+            record(request, statistics);
+            queryBudget.check(request, statistics, false);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryStatistics statistics) {
+        String uri = QueryBudget.uriOf(request);
+        DistributionSummary.builder("filmorate.http.queries")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100, 200, 500, 1000)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("filmorate.http.db.time")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+    private boolean budgetChecked;
+
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    static void record(long nanos) {
+        QueryStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.nanos += nanos;
+        }
+    }
+
+    void markBudgetChecked() {
+        budgetChecked = true;
+    }
+
+    public Duration getTime() {
+        return Duration.ofNanos(nanos);
+    }
+}
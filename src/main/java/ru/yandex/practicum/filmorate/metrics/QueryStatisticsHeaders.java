@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+@ControllerAdvice
+@RequiredArgsConstructor
+public class QueryStatisticsHeaders implements ResponseBodyAdvice<Object> {
+
+    public static final String DB_QUERIES_HEADER = "X-Db-Queries";
+    public static final String DB_TIME_HEADER = "X-Db-Time";
+
+    private final QueryBudget queryBudget;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set(DB_QUERIES_HEADER, String.valueOf(statistics.getStatements()));
+            response.getHeaders().set(DB_TIME_HEADER,
+                    String.format(Locale.ROOT, "%.3f", statistics.getNanos() / 1_000_000.0));
+            if (request instanceof ServletServerHttpRequest) {
+                queryBudget.check(((ServletServerHttpRequest) request).getServletRequest(), statistics, true);
+            }
+        }
+        return body;
+    }
+}
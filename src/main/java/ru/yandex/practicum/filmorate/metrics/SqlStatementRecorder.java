@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+public class SqlStatementRecorder {
+
+    private static final String SQL_TIMER = "filmorate.sql";
+    private static final String UNKNOWN_STATEMENT = "batch";
+    private static final int MAX_STATEMENT_LENGTH = 200;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> succeeded = new ConcurrentHashMap<>();
+    private final Map<String, Timer> failed = new ConcurrentHashMap<>();
+
+    public void record(String sql, long nanos, boolean success) {
+        QueryStatistics.record(nanos);
+        String statement = sql == null ? UNKNOWN_STATEMENT : normalize(sql);
+        Map<String, Timer> timers = success ? succeeded : failed;
+        timers.computeIfAbsent(statement, key -> Timer.builder(SQL_TIMER)
+                        .tag("statement", key)
+                        .tag("outcome", success ? "success" : "error")
+                        .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String normalize(String sql) {
+        String statement = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        statement = PLACEHOLDER_LIST.matcher(statement).replaceAll("?...");
+        return statement.length() > MAX_STATEMENT_LENGTH ? statement.substring(0, MAX_STATEMENT_LENGTH) : statement;
+    }
+}
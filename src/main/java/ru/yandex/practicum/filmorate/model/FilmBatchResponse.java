@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FilmBatchResponse {
+
+    private final List<Film> films;
+    private final List<Long> missing;
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportReport {
+
+    private final String type;
+    private long received;
+    private long imported;
+    private long failed;
+    private long durationMillis;
+    private List<ImportError> errors = new ArrayList<>();
+}
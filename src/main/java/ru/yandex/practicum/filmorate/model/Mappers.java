@@ -23,6 +23,14 @@ public class Mappers {
                     rs.getInt("duration"),
                     new Mpa(rs.getLong("mpa_id")));
 
+    public static final RowMapper<Film> FILM_WITH_MPA_MAPPER = (ResultSet rs, int rowNum) ->
+            new Film(rs.getLong("film_id"),
+                    rs.getString("name"),
+                    rs.getString("description"),
+                    rs.getDate("releaseDate").toLocalDate(),
+                    rs.getInt("duration"),
+                    new Mpa(rs.getLong("mpa_id"), rs.getString("mpa_name")));
+
     public static final RowMapper<Mpa> MPA_MAPPER = (ResultSet rs, int rowNum) ->
             new Mpa(rs.getLong("mpa_id"),
                     rs.getString("name"));
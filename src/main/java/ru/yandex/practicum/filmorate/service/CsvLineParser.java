@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.experimental.UtilityClass;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@UtilityClass
+public class CsvLineParser {
+
+    public static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Незакрытые кавычки в строке CSV");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    public static Map<String, String> toRow(List<String> header, String line) {
+        List<String> fields = parse(line);
+        if (fields.size() != header.size()) {
+            throw new ValidationException("Ожидалось полей: " + header.size() + ", получено: " + fields.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), fields.get(i));
+        }
+        return row;
+    }
+}
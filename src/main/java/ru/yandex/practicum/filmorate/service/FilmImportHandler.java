@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class FilmImportHandler implements ImportHandler<Film> {
+
+    private final FilmStorage filmStorage;
+    private final MpaStorage mpaStorage;
+    private final GenreStorage genreStorage;
+    private final FilmLeaderboard filmLeaderboard;
+
+    @Override
+    public String getType() {
+        return "films";
+    }
+
+    @Override
+    public Class<Film> getRecordClass() {
+        return Film.class;
+    }
+
+    @Override
+    public Film fromCsv(Map<String, String> row) {
+        Film film = new Film(null,
+                row.get("name"),
+                row.get("description"),
+                LocalDate.parse(row.get("releaseDate")),
+                Integer.parseInt(row.get("duration")),
+                new Mpa(Long.parseLong(row.get("mpa"))));
+        String genres = row.getOrDefault("genres", "");
+        if (!genres.isBlank()) {
+            for (String genreId : genres.split(";")) {
+                film.getGenres().add(new Genre(Long.parseLong(genreId.trim()), null));
+            }
+        }
+        return film;
+    }
+
+    @Override
+    public Film validate(Film film) {
+        if (film.getReleaseDate() == null || film.getDuration() == null
+                || film.getMpa() == null || film.getMpa().getId() == null) {
+            throw new ValidationException("Не заполнены дата выхода, продолжительность или рейтинг МРА");
+        }
+        if (!Validator.validateFilm(film)) {
+            throw new ValidationException("Некорректные данные фильма");
+        }
+        long mpaId = film.getMpa().getId();
+        Film filmNew = new Film(null,
+                film.getName(),
+                film.getDescription(),
+                film.getReleaseDate(),
+                film.getDuration(),
+                mpaStorage.findMpaById(mpaId)
+                        .orElseThrow(() -> new ValidationException("Не найден рейтинг МРА с id " + mpaId)));
+        for (Genre genre : film.getGenres()) {
+            filmNew.getGenres().add(genreStorage.findGenreById(genre.getId())
+                    .orElseThrow(() -> new ValidationException("Не найден жанр с id " + genre.getId())));
+        }
+        return filmNew;
+    }
+
+    @Override
+    public List<Film> insert(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public void afterImport(List<Film> films) {
+        for (Film film : films) {
+            filmLeaderboard.addFilm(film.getId());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.Transactions;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmLeaderboard {
+
+    private static final Comparator<Rank> RANK_ORDER = Comparator
+            .comparingLong((Rank rank) -> rank.likes).reversed()
+            .thenComparingLong(rank -> rank.filmId);
+
+    private final LikeStorage likeStorage;
+    private final Map<Long, Rank> ranksByFilm = new HashMap<>();
+    private final TreeSet<Rank> ranking = new TreeSet<>(RANK_ORDER);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final boolean enabled;
+
+    public FilmLeaderboard(LikeStorage likeStorage,
+                           @Value("${filmorate.leaderboard.enabled:true}") boolean enabled) {
+        this.likeStorage = likeStorage;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Long> likesByFilm = likeStorage.countLikesByFilm();
+        lock.writeLock().lock();
+        try {
+            ranksByFilm.clear();
+            ranking.clear();
+            likesByFilm.forEach(this::putRank);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Рейтинг популярности построен, фильмов: {}", likesByFilm.size());
+    }
+
+    public void addFilm(long filmId) {
+        Transactions.afterCommit(() -> changeLikes(filmId, 0));
+    }
+
+    public void changeLikes(long filmId, long delta) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.get(filmId);
+            if (rank == null) {
+                putRank(filmId, Math.max(delta, 0));
+            } else if (delta != 0) {
+                ranking.remove(rank);
+                putRank(filmId, Math.max(rank.likes + delta, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void revertLikes(long filmId, long delta) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.get(filmId);
+            if (rank != null && delta != 0) {
+                ranking.remove(rank);
+                putRank(filmId, Math.max(rank.likes - delta, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeFilm(long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.remove(filmId);
+            if (rank != null) {
+                ranking.remove(rank);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> getTopFilmIds(long count) {
+        lock.readLock().lock();
+        try {
+            List<Long> filmIds = new ArrayList<>((int) Math.min(count, ranking.size()));
+            Iterator<Rank> iterator = ranking.iterator();
+            while (iterator.hasNext() && filmIds.size() < count) {
+                filmIds.add(iterator.next().filmId);
+            }
+            return filmIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Long, Long> findInconsistencies() {
+        Map<Long, Long> expected = likeStorage.countLikesByFilm();
+        Map<Long, Long> mismatches = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            expected.forEach((filmId, likes) -> {
+                Rank rank = ranksByFilm.get(filmId);
+                if (rank == null || rank.likes != likes) {
+                    mismatches.put(filmId, likes);
+                }
+            });
+            for (Long filmId : ranksByFilm.keySet()) {
+                if (!expected.containsKey(filmId)) {
+                    mismatches.put(filmId, 0L);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!mismatches.isEmpty()) {
+            log.warn("Рейтинг популярности расходится с таблицей LIKES для фильмов: {}", mismatches.keySet());
+        }
+        return mismatches;
+    }
+
+    private void putRank(long filmId, long likes) {
+        Rank rank = new Rank(filmId, likes);
+        ranksByFilm.put(filmId, rank);
+        ranking.add(rank);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Rank {
+        private final long filmId;
+        private final long likes;
+    }
+}
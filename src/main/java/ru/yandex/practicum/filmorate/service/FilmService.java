@@ -2,21 +2,30 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.exception.WorkApplicationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmBatchResponse;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,54 +33,65 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class FilmService {
 
-    @Qualifier("FilmDbStorage")
     private final FilmStorage filmStorage;
     private final MpaStorage mpaStorage;
     private final GenreStorage genreStorage;
     private final LikeStorage likeStorage;
-
+    private final FilmLeaderboard filmLeaderboard;
+    private final UserStorage userStorage;
+    private final LikeWriteBehind likeWriteBehind;
+    private final FilmSimilarity filmSimilarity;
+    private final FriendsPopularFilms friendsPopularFilms;
 
     public List<Film> findAllFilms() {
-        List<Film> films = new ArrayList<>();
-        for (Film film : filmStorage.getFilms()) {
-            Film filmNew = new Film(film.getId(),
-                    film.getName(),
-                    film.getDescription(),
-                    film.getReleaseDate(),
-                    film.getDuration(),
-                    mpaStorage.findMpaById(film.getMpa().getId()).get());
-            filmNew.getGenres().addAll(filmStorage.getGenreFilmById(filmNew.getId()));
-            filmNew.getLikes().addAll(likeStorage.getLikeByIdFilm(film.getId()));
-            films.add(filmNew);
-        }
         log.info("Список всех фильмов ");
-        return films;
+        return likeWriteBehind.withPendingLikes(filmStorage.getFilmsWithDetails());
+    }
+
+    public List<Film> findFilmsPage(Long afterId, Integer limit) {
+        long pageAfterId = afterId == null ? 0 : afterId;
+        int pageLimit = limit == null ? Validator.DEFAULT_PAGE_SIZE : limit;
+        Validator.validatePage(pageAfterId, pageLimit);
+        log.info("Страница фильмов после id {}", pageAfterId);
+        return likeWriteBehind.withPendingLikes(filmStorage.getFilmsWithDetailsPage(pageAfterId, pageLimit));
+    }
+
+    public void streamAllFilms(Consumer<Film> consumer) {
+        List<Film> page = filmStorage.getFilmsWithDetailsPage(0, Validator.MAX_PAGE_SIZE);
+        while (!page.isEmpty()) {
+            likeWriteBehind.withPendingLikes(page).forEach(consumer);
+            long afterId = page.get(page.size() - 1).getId();
+            page = filmStorage.getFilmsWithDetailsPage(afterId, Validator.MAX_PAGE_SIZE);
+        }
+        log.info("Список всех фильмов выгружен потоком");
     }
 
+    @Transactional
     public Film createFilm(Film film) {
         if (Validator.validateFilm(film)) {
             Film filmNew = appointGenre(film);
             log.info("Добавлен новый фильм: {}", film.getName());
-            return filmStorage.addFilm(filmNew);
+            Film filmCreated = filmStorage.addFilm(filmNew);
+            filmLeaderboard.addFilm(filmCreated.getId());
+            return filmCreated;
         } else {
             log.error("Данные фильма внесены некорректно.");
             throw new ValidationException("Некорректные данные фильма");
         }
     }
 
+    @Transactional
     public Film updateFilm(Film film) {
         if (filmStorage.findFilmById(film.getId()).isPresent()) {
-            filmStorage.putFilm(film);
             Film filmNew = appointGenre(film);
-            filmStorage.removeGenreFilm(filmNew.getId());
-            for (Genre genre : filmNew.getGenres()) {
-                if (!filmStorage.getGenreFilmById(filmNew.getId()).contains(genre)) {
-                    filmStorage.addGenreToFilm(filmNew.getId(), genre.getId());
-                }
-            }
-            filmNew.getLikes().addAll(likeStorage.getLikeByIdFilm(film.getId()));
+            filmStorage.putFilm(film);
+            filmStorage.replaceGenresFilm(filmNew.getId(), filmNew.getGenres()
+                    .stream()
+                    .map(Genre::getId)
+                    .collect(Collectors.toList()));
             log.info("Обновлены данные фильма: {}", film.getName());
-            return filmNew;
+            return filmStorage.findFilmWithDetailsById(filmNew.getId())
+                    .orElseThrow(() -> new FilmNotFoundException(film.getId()));
         } else {
             log.error("Фильм не найден в списке ");
             throw new FilmNotFoundException(film.getId());
@@ -82,6 +102,8 @@ public class FilmService {
         if (filmStorage.findFilmById(film.getId()).isPresent()) {
             filmStorage.deleteFilm(film);
             filmStorage.removeGenreFilm(film.getId());
+            filmLeaderboard.removeFilm(film.getId());
+            filmSimilarity.removeFilm(film.getId());
         } else {
             log.error("Фильм не найден в списке");
             throw new FilmNotFoundException(film.getId());
@@ -92,66 +114,155 @@ public class FilmService {
 
     public Optional<Film> findFilmById(String filmById) {
         long id = Validator.convertToLongFilm(filmById);
-        if (filmStorage.findFilmById(id).isPresent()) {
-            Film film = filmStorage.findFilmById(id).get();
-            film = new Film(film.getId(),
-                    film.getName(),
-                    film.getDescription(),
-                    film.getReleaseDate(),
-                    film.getDuration(),
-                    mpaStorage.findMpaById(film.getMpa().getId()).get());
-            film.getGenres().addAll(filmStorage.getGenreFilmById(id));
-            film.getLikes().addAll(likeStorage.getLikeByIdFilm(film.getId()));
-            log.info("Фильм с id {}", film.getId());
-            return Optional.of(film);
-        } else {
-            throw new FilmNotFoundException(id);
-        }
+        Film film = filmStorage.findFilmWithDetailsById(id)
+                .orElseThrow(() -> new FilmNotFoundException(id));
+        log.info("Фильм с id {}", film.getId());
+        return Optional.of(likeWriteBehind.withPendingLikes(film));
+    }
+
+    public FilmBatchResponse findFilmsByIds(List<Long> filmIds) {
+        Validator.validateBatch(filmIds);
+        List<Film> films = likeWriteBehind.withPendingLikes(filmStorage.findFilmsWithDetailsByIds(filmIds));
+        Set<Long> foundIds = films.stream()
+                .map(Film::getId)
+                .collect(Collectors.toSet());
+        List<Long> missingIds = filmIds.stream()
+                .filter(filmId -> !foundIds.contains(filmId))
+                .distinct()
+                .collect(Collectors.toList());
+        log.info("Найдено фильмов {} из {}, не найдены: {}", films.size(), filmIds.size(), missingIds);
+        return new FilmBatchResponse(films, missingIds);
     }
 
     public List<Film> sortFilmByLike(String count) {
         long size = Validator.convertToLongFilm(count);
         log.info("Список фильмов отсортирован по их популярности");
-        return findAllFilms()
-                .stream()
-                .sorted((filmOne, filmTwo) -> filmTwo.getLikes().size() - filmOne.getLikes().size())
-                .limit(size)
+        if (filmLeaderboard.isEnabled()) {
+            return likeWriteBehind.withPendingLikes(
+                    filmStorage.findFilmsWithDetailsByIds(filmLeaderboard.getTopFilmIds(size)));
+        }
+        return likeWriteBehind.withPendingLikes(filmStorage.getPopularFilms(size));
+    }
+
+    public List<Film> findCommonFilms(String user, String friend) {
+        long userId = Validator.convertToLongUser(user);
+        long friendId = Validator.convertToLongUser(friend);
+        for (long id : List.of(userId, friendId)) {
+            if (userStorage.findUserById(id).isEmpty()) {
+                throw new UserNotFoundException(id);
+            }
+        }
+        List<Long> filmIds = likeStorage.findFilmsLikedByBoth(userId, friendId);
+        Map<Long, Integer> likesByFilm = new HashMap<>();
+        for (Long filmId : filmIds) {
+            likesByFilm.put(filmId, likeStorage.countLikes(filmId));
+        }
+        filmIds.sort(Comparator.comparingInt((Long filmId) -> likesByFilm.get(filmId)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        log.info("Общих фильмов у пользователей {} и {}: {}", userId, friendId, filmIds.size());
+        return likeWriteBehind.withPendingLikes(filmStorage.findFilmsWithDetailsByIds(filmIds));
+    }
+
+    public List<Film> findPopularWithFriends(String user, String count) {
+        long userId = Validator.convertToLongUser(user);
+        long size = Validator.convertToLongFilm(count);
+        if (userStorage.findUserById(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+        List<Long> filmIds = Arrays.stream(friendsPopularFilms.findPopular(userId,
+                        (int) Math.min(size, Validator.MAX_PAGE_SIZE)))
+                .boxed()
+                .collect(Collectors.toList());
+        log.info("Популярных у друзей пользователя {} фильмов: {}", userId, filmIds.size());
+        return likeWriteBehind.withPendingLikes(filmStorage.findFilmsWithDetailsByIds(filmIds));
+    }
+
+    public List<Film> findSimilarFilms(String film, Integer limit) {
+        long filmId = Validator.convertToLongFilm(film);
+        int size = limit == null ? Validator.DEFAULT_SIMILAR : limit;
+        Validator.validateSimilarLimit(size);
+        if (filmStorage.findFilmById(filmId).isEmpty()) {
+            throw new FilmNotFoundException(filmId);
+        }
+        List<Long> filmIds = Arrays.stream(filmSimilarity.findSimilar(filmId, size))
+                .boxed()
                 .collect(Collectors.toList());
+        log.info("Похожих фильмов для фильма {}: {}", filmId, filmIds.size());
+        return likeWriteBehind.withPendingLikes(filmStorage.findFilmsWithDetailsByIds(filmIds));
     }
 
     public Film addLikeFilm(String film, String user) {
         long filmId = Validator.convertToLongFilm(film);
         long userId = Validator.convertToLongFilm(user);
-        Film filmTwo = filmStorage.findFilmById(filmId).get();
-        if (likeStorage.isExist(filmId, userId)) {
+        if (likeWriteBehind.isEnabled()) {
+            return addLikeFilmLater(filmId, userId);
+        }
+        long similarityVersion = filmSimilarity.getVersion(userId);
+        boolean added;
+        try {
+            added = likeStorage.addLike(filmId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw notFound(filmId, userId);
+        }
+        if (!added) {
             log.error("Пользователь уже оценил этот фильм лайком.");
             throw new WorkApplicationException("Пользователь уже оценил этот фильм лайком.");
-        } else {
-            likeStorage.addLike(filmId, userId);
-            filmTwo = new Film(filmTwo.getId(),
-                    filmTwo.getName(),
-                    filmTwo.getDescription(),
-                    filmTwo.getReleaseDate(),
-                    filmTwo.getDuration(),
-                    mpaStorage.findMpaById(filmTwo.getMpa().getId()).get());
-            filmTwo.getGenres().addAll(filmStorage.getGenreFilmById(filmTwo.getId()));
-            filmTwo.getLikes().addAll(likeStorage.getLikeByIdFilm(filmTwo.getId()));
-            log.info("Пользователь" + userId + "Оценил лайком №" + filmId);
-            return filmTwo;
         }
+        filmLeaderboard.changeLikes(filmId, 1);
+        filmSimilarity.likeAdded(filmId, userId, similarityVersion);
+        log.info("Пользователь" + userId + "Оценил лайком №" + filmId);
+        return filmStorage.findFilmWithDetailsById(filmId)
+                .orElseThrow(() -> new FilmNotFoundException(filmId));
     }
 
     public Film removeLikeFilm(String film, String user) {
         long filmId = Validator.convertToLongFilm(film);
         long userId = Validator.convertToLongFilm(user);
-        Film filmOne = filmStorage.findFilmById(filmId).get();
-        if (!likeStorage.isExist(filmId, userId)) {
+        if (likeWriteBehind.cancel(filmId, userId)) {
+            filmLeaderboard.changeLikes(filmId, -1);
+            log.info("Пользователь" + userId + " отменил лайк фильму №" + filmId + " до его записи");
+            return findFilmWithPendingLikes(filmId);
+        }
+        long similarityVersion = filmSimilarity.getVersion(userId);
+        if (!likeStorage.removeLike(filmId, userId)) {
+            if (filmStorage.findFilmById(filmId).isEmpty()) {
+                throw new FilmNotFoundException(filmId);
+            }
             log.error("Пользователь не оценивал этот фильм.");
             throw new WorkApplicationException("Пользователь не оценивал этот фильм.");
         }
-        likeStorage.removeLike(filmId, userId);
+        filmLeaderboard.changeLikes(filmId, -1);
+        filmSimilarity.likeRemoved(filmId, userId, similarityVersion);
         log.info("Пользователь" + userId + " удалил свой лайк у фильма №" + filmId);
-        return filmOne;
+        return findFilmWithPendingLikes(filmId);
+    }
+
+    private Film addLikeFilmLater(long filmId, long userId) {
+        if (filmStorage.findFilmWithDetailsById(filmId).isEmpty()) {
+            throw new FilmNotFoundException(filmId);
+        }
+        if (userStorage.findUserById(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+        boolean accepted;
+        try {
+            accepted = likeWriteBehind.accept(filmId, userId);
+        } catch (DataIntegrityViolationException e) {
+            throw notFound(filmId, userId);
+        }
+        if (!accepted) {
+            log.error("Пользователь уже оценил этот фильм лайком.");
+            throw new WorkApplicationException("Пользователь уже оценил этот фильм лайком.");
+        }
+        filmLeaderboard.changeLikes(filmId, 1);
+        log.info("Лайк пользователя {} фильму №{} поставлен в очередь записи", userId, filmId);
+        return findFilmWithPendingLikes(filmId);
+    }
+
+    private Film findFilmWithPendingLikes(long filmId) {
+        return filmStorage.findFilmWithDetailsById(filmId)
+                .map(likeWriteBehind::withPendingLikes)
+                .orElseThrow(() -> new FilmNotFoundException(filmId));
     }
 
     public Film appointGenre(Film film) {
@@ -171,4 +282,11 @@ public class FilmService {
         }
         return filmNew;
     }
+
+    private RuntimeException notFound(long filmId, long userId) {
+        if (filmStorage.findFilmById(filmId).isEmpty()) {
+            return new FilmNotFoundException(filmId);
+        }
+        return new UserNotFoundException(userId);
+    }
 }
@@ -0,0 +1,345 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.like.LikeIndex;
+import ru.yandex.practicum.filmorate.util.LongLongMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FilmSimilarity {
+
+    private static final int PARTITION_SIZE = 256;
+    private static final int USER_STRIPES = 1024;
+    private static final long[] NO_FILMS = new long[0];
+
+    private final LikeIndex likeIndex;
+    private final boolean enabled;
+    private final int topK;
+    private final int maxFanout;
+    private final Duration initialDelay;
+    private final Duration rebuildInterval;
+    private final ForkJoinPool buildPool;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final Set<Long> stale = new HashSet<>();
+    private final AtomicLongArray userVersions = new AtomicLongArray(USER_STRIPES);
+    private Map<Long, LongLongMap> coLikes = new HashMap<>();
+    private Map<Long, long[]> neighbours = new HashMap<>();
+    private Set<Long> changedDuringRebuild;
+    private Set<Long> removedDuringRebuild;
+    private volatile long generation;
+    private ScheduledExecutorService builder;
+
+    public FilmSimilarity(LikeIndex likeIndex,
+                          @Value("${filmorate.similar.enabled:true}") boolean enabled,
+                          @Value("${filmorate.similar.top-k:50}") int topK,
+                          @Value("${filmorate.similar.max-fanout:200}") int maxFanout,
+                          @Value("${filmorate.similar.parallelism:2}") int parallelism,
+                          @Value("${filmorate.similar.initial-delay:1m}") Duration initialDelay,
+                          @Value("${filmorate.similar.rebuild-interval:30m}") Duration rebuildInterval) {
+        this.likeIndex = likeIndex;
+        this.enabled = enabled;
+        this.topK = topK;
+        this.maxFanout = maxFanout;
+        this.initialDelay = initialDelay;
+        this.rebuildInterval = rebuildInterval;
+        this.buildPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("film-similarity-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "film-similarity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        builder.scheduleWithFixedDelay(this::rebuildQuietly,
+                initialDelay.toMillis(), rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (builder != null) {
+            builder.shutdownNow();
+        }
+        buildPool.shutdownNow();
+    }
+
+    public void requestRebuild() {
+        ScheduledExecutorService current = builder;
+        if (current == null || current.isShutdown() || !rebuildRequested.compareAndSet(false, true)) {
+            return;
+        }
+        current.execute(() -> {
+            rebuildRequested.set(false);
+            rebuildQuietly();
+        });
+    }
+
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+            removedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        long[] filmIds = likeIndex.getLikedFilmIds();
+        LongLongMap[] rows = new LongLongMap[filmIds.length];
+        long[][] tops = new long[filmIds.length][];
+        try {
+            buildPool.invoke(new BuildTask(filmIds, rows, tops, 0, filmIds.length));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+                removedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        Map<Long, LongLongMap> builtCoLikes = new HashMap<>(filmIds.length * 2);
+        Map<Long, long[]> builtNeighbours = new HashMap<>(filmIds.length * 2);
+        for (int i = 0; i < filmIds.length; i++) {
+            builtCoLikes.put(filmIds[i], rows[i]);
+            builtNeighbours.put(filmIds[i], tops[i]);
+        }
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            coLikes = builtCoLikes;
+            neighbours = builtNeighbours;
+            stale.clear();
+            for (long filmId : removedDuringRebuild) {
+                removeRow(filmId);
+            }
+            changedDuringRebuild.removeAll(removedDuringRebuild);
+            for (long filmId : changedDuringRebuild) {
+                recount(filmId);
+            }
+            replayed = changedDuringRebuild.size() + removedDuringRebuild.size();
+            changedDuringRebuild = null;
+            removedDuringRebuild = null;
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Матрица похожих фильмов построена: фильмов {}, пересчитано после замены {}, за {} мс",
+                filmIds.length, replayed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public long[] findSimilar(long filmId, int limit) {
+        if (!enabled) {
+            return NO_FILMS;
+        }
+        long[] top;
+        lock.readLock().lock();
+        try {
+            top = stale.contains(filmId) ? null : neighbours.get(filmId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (top == null) {
+            lock.writeLock().lock();
+            try {
+                LongLongMap row = coLikes.get(filmId);
+                top = row == null ? NO_FILMS : row.topKeys(topK);
+                neighbours.put(filmId, top);
+                stale.remove(filmId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return Arrays.copyOf(top, Math.min(limit, top.length));
+    }
+
+    public long getVersion(long userId) {
+        return generation + userVersions.get(stripe(userId));
+    }
+
+    public void likeAdded(long filmId, long userId, long seenVersion) {
+        adjust(userId, new long[]{filmId}, 1, seenVersion);
+    }
+
+    public void likesAdded(long userId, long[] filmIds, long seenVersion) {
+        long[] sorted = filmIds.clone();
+        Arrays.sort(sorted);
+        adjust(userId, sorted, 1, seenVersion);
+    }
+
+    public void likeRemoved(long filmId, long userId, long seenVersion) {
+        adjust(userId, new long[]{filmId}, -1, seenVersion);
+    }
+
+    public void removeFilm(long filmId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeRow(filmId);
+            if (removedDuringRebuild != null) {
+                removedDuringRebuild.add(filmId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeRow(long filmId) {
+        LongLongMap row = coLikes.remove(filmId);
+        neighbours.remove(filmId);
+        stale.remove(filmId);
+        if (row != null) {
+            for (long otherFilmId : row.keys()) {
+                LongLongMap otherRow = coLikes.get(otherFilmId);
+                if (otherRow != null) {
+                    otherRow.add(filmId, -otherRow.get(filmId));
+                    stale.add(otherFilmId);
+                }
+            }
+        }
+    }
+
+    private void adjust(long userId, long[] changedFilmIds, int delta, long seenVersion) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            boolean overlapped = getVersion(userId) != seenVersion;
+            userVersions.incrementAndGet(stripe(userId));
+            long[] filmIds = likeIndex.getFilmIds(userId);
+            if (filmIds.length > maxFanout) {
+                return;
+            }
+            if (overlapped) {
+                for (long filmId : changedFilmIds) {
+                    recount(filmId);
+                }
+                for (long otherFilmId : filmIds) {
+                    recount(otherFilmId);
+                }
+            } else {
+                for (long filmId : changedFilmIds) {
+                    LongLongMap row = coLikes.computeIfAbsent(filmId, id -> new LongLongMap(16));
+                    for (long otherFilmId : filmIds) {
+                        if (otherFilmId != filmId && (otherFilmId > filmId
+                                || Arrays.binarySearch(changedFilmIds, otherFilmId) < 0)) {
+                            row.add(otherFilmId, delta);
+                            coLikes.computeIfAbsent(otherFilmId, id -> new LongLongMap(16)).add(filmId, delta);
+                            stale.add(otherFilmId);
+                        }
+                    }
+                    stale.add(filmId);
+                }
+            }
+            if (changedDuringRebuild != null) {
+                for (long filmId : changedFilmIds) {
+                    changedDuringRebuild.add(filmId);
+                }
+                for (long otherFilmId : filmIds) {
+                    changedDuringRebuild.add(otherFilmId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int stripe(long userId) {
+        return (int) (userId & (USER_STRIPES - 1));
+    }
+
+    private void recount(long filmId) {
+        LongLongMap row = countCoLikes(filmId);
+        if (row.size() == 0) {
+            coLikes.remove(filmId);
+        } else {
+            coLikes.put(filmId, row);
+        }
+        stale.add(filmId);
+    }
+
+    private LongLongMap countCoLikes(long filmId) {
+        LongLongMap row = new LongLongMap(16);
+        for (long userId : likeIndex.getUserIds(filmId)) {
+            long[] filmIds = IdSampler.sample(likeIndex.getFilmIds(userId), maxFanout);
+            if (Arrays.binarySearch(filmIds, filmId) < 0) {
+                continue;
+            }
+            for (long otherFilmId : filmIds) {
+                if (otherFilmId != filmId) {
+                    row.increment(otherFilmId);
+                }
+            }
+        }
+        return row;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("Не удалось построить матрицу похожих фильмов: {}", e.getMessage());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private final class BuildTask extends RecursiveAction {
+        private final long[] filmIds;
+        private final LongLongMap[] rows;
+        private final long[][] tops;
+        private final int from;
+        private final int to;
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                for (int i = from; i < to; i++) {
+                    rows[i] = countCoLikes(filmIds[i]);
+                    tops[i] = rows[i].topKeys(topK);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BuildTask(filmIds, rows, tops, from, middle),
+                    new BuildTask(filmIds, rows, tops, middle, to));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipGraph;
+import ru.yandex.practicum.filmorate.util.LongLongMap;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class FriendSuggestions {
+
+    private final FriendshipGraph friendshipGraph;
+    private final int maxFriends;
+    private final int maxFanout;
+    private final int cacheSize;
+    private final Map<Long, Suggestions> cache;
+
+    public FriendSuggestions(FriendshipGraph friendshipGraph,
+                             @Value("${filmorate.friends.suggestions.max-friends:500}") int maxFriends,
+                             @Value("${filmorate.friends.suggestions.max-fanout:1000}") int maxFanout,
+                             @Value("${filmorate.friends.suggestions.cache-size:10000}") int cacheSize) {
+        this.friendshipGraph = friendshipGraph;
+        this.maxFriends = maxFriends;
+        this.maxFanout = maxFanout;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Suggestions> eldest) {
+                return size() > FriendSuggestions.this.cacheSize;
+            }
+        };
+    }
+
+    public long[] suggest(long userId, int limit) {
+        Suggestions cached;
+        synchronized (cache) {
+            cached = cache.get(userId);
+        }
+        if (cached != null && cached.limit >= limit && friendshipGraph.isUnchangedSince(cached.version, userId)) {
+            return Arrays.copyOf(cached.userIds, Math.min(limit, cached.userIds.length));
+        }
+        long version = friendshipGraph.getVersion();
+        long[] userIds = rank(userId, limit);
+        if (cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(userId, new Suggestions(version, limit, userIds));
+            }
+        }
+        return userIds;
+    }
+
+    private long[] rank(long userId, int limit) {
+        long[] friends = friendshipGraph.getFriends(userId);
+        LongLongMap candidates = new LongLongMap(Math.min(friends.length, maxFriends) * 16);
+        for (long friendId : IdSampler.sample(friends, maxFriends)) {
+            for (long candidateId : IdSampler.sample(friendshipGraph.getFriends(friendId), maxFanout)) {
+                if (candidateId != userId && Arrays.binarySearch(friends, candidateId) < 0) {
+                    candidates.increment(candidateId);
+                }
+            }
+        }
+        log.debug("Кандидатов в друзья для пользователя {}: {}", userId, candidates.size());
+        return candidates.topKeys(limit);
+    }
+
+    @RequiredArgsConstructor
+    private static final class Suggestions {
+        private final long version;
+        private final int limit;
+        private final long[] userIds;
+    }
+}
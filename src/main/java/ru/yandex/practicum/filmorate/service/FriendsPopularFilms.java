@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipGraph;
+import ru.yandex.practicum.filmorate.storage.like.LikeIndex;
+import ru.yandex.practicum.filmorate.util.LongLongMap;
+
+@Slf4j
+@Component
+public class FriendsPopularFilms {
+
+    private final FriendshipGraph friendshipGraph;
+    private final LikeIndex likeIndex;
+    private final int maxFriends;
+
+    public FriendsPopularFilms(FriendshipGraph friendshipGraph,
+                               LikeIndex likeIndex,
+                               @Value("${filmorate.friends.popular-films.max-friends:2000}") int maxFriends) {
+        this.friendshipGraph = friendshipGraph;
+        this.likeIndex = likeIndex;
+        this.maxFriends = maxFriends;
+    }
+
+    public long[] findPopular(long userId, int count) {
+        long[] friends = friendshipGraph.getFriends(userId);
+        long[] sampled = IdSampler.sample(friends, maxFriends);
+        LongLongMap films = new LongLongMap(sampled.length * 8);
+        for (long friendId : sampled) {
+            for (long filmId : likeIndex.getFilmIds(friendId)) {
+                films.increment(filmId);
+            }
+        }
+        log.debug("Фильмов у {} из {} друзей пользователя {}: {}",
+                sampled.length, friends.length, userId, films.size());
+        return films.topKeys(count);
+    }
+}
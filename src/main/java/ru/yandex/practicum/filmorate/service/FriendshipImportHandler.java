@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class FriendshipImportHandler implements ImportHandler<Friendship> {
+
+    private final FriendshipStorage friendshipStorage;
+
+    @Override
+    public String getType() {
+        return "friendships";
+    }
+
+    @Override
+    public Class<Friendship> getRecordClass() {
+        return Friendship.class;
+    }
+
+    @Override
+    public Friendship fromCsv(Map<String, String> row) {
+        return new Friendship(Long.parseLong(row.get("userId")), Long.parseLong(row.get("friendId")));
+    }
+
+    @Override
+    public Friendship validate(Friendship friendship) {
+        if (friendship.getUserId() <= 0 || friendship.getFriendId() <= 0) {
+            throw new ValidationException("Идентификаторы пользователей должны быть положительными");
+        } else if (friendship.getUserId() == friendship.getFriendId()) {
+            throw new ValidationException("Пользователь не может добавить в друзья сам себя");
+        }
+        return friendship;
+    }
+
+    @Override
+    public List<Friendship> insert(List<Friendship> friendships) {
+        friendshipStorage.addAll(friendships);
+        return friendships;
+    }
+
+    @Override
+    public void afterImport(List<Friendship> friendships) {
+    }
+}
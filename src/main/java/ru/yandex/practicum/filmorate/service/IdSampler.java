@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+class IdSampler {
+
+    static long[] sample(long[] ids, int max) {
+        if (ids.length <= max) {
+            return ids;
+        }
+        long[] sampled = new long[max];
+        for (int i = 0; i < max; i++) {
+            sampled[i] = ids[(int) ((long) i * ids.length / max)];
+        }
+        return sampled;
+    }
+}
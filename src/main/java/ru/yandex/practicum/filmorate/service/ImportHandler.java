@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ImportHandler<T> {
+
+    String getType();
+
+    Class<T> getRecordClass();
+
+    T fromCsv(Map<String, String> row);
+
+    T validate(T record);
+
+    List<T> insert(List<T> records);
+
+    void afterImport(List<T> records);
+}
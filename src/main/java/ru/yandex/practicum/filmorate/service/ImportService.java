@@ -0,0 +1,139 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.ImportError;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class ImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final Map<String, ImportHandler<?>> handlers = new HashMap<>();
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ImportService(List<ImportHandler<?>> handlers,
+                         ObjectMapper objectMapper,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${filmorate.import.chunk-size:1000}") int chunkSize) {
+        for (ImportHandler<?> handler : handlers) {
+            this.handlers.put(handler.getType(), handler);
+        }
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportReport importNdjson(String type, InputStream body) throws IOException {
+        return importRows(findHandler(type), body, false);
+    }
+
+    public ImportReport importCsv(String type, InputStream body) throws IOException {
+        return importRows(findHandler(type), body, true);
+    }
+
+    private ImportHandler<?> findHandler(String type) {
+        ImportHandler<?> handler = handlers.get(type);
+        if (handler == null) {
+            log.info("Неизвестный тип импорта: {}", type);
+            throw new ValidationException("Импорт поддерживается для: " + handlers.keySet());
+        }
+        return handler;
+    }
+
+    private <T> ImportReport importRows(ImportHandler<T> handler, InputStream body, boolean csv) throws IOException {
+        ImportReport report = new ImportReport(handler.getType());
+        long started = System.nanoTime();
+        List<T> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (csv && header == null) {
+                    header = CsvLineParser.parse(line);
+                    continue;
+                }
+                report.setReceived(report.getReceived() + 1);
+                try {
+                    T record = csv
+                            ? handler.fromCsv(CsvLineParser.toRow(header, line))
+                            : objectMapper.readValue(line, handler.getRecordClass());
+                    chunk.add(handler.validate(record));
+                    chunkLines.add(lineNumber);
+                } catch (JsonProcessingException | RuntimeException e) {
+                    reject(report, lineNumber, e);
+                }
+                if (chunk.size() >= chunkSize) {
+                    flush(handler, chunk, chunkLines, report);
+                }
+            }
+        }
+        flush(handler, chunk, chunkLines, report);
+        report.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Импорт {}: получено {}, загружено {}, отклонено {} за {} мс", report.getType(),
+                report.getReceived(), report.getImported(), report.getFailed(), report.getDurationMillis());
+        return report;
+    }
+
+    private <T> void flush(ImportHandler<T> handler, List<T> chunk, List<Long> chunkLines, ImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<T> imported;
+        try {
+            imported = transactionTemplate.execute(status -> handler.insert(chunk));
+        } catch (DataAccessException e) {
+            log.info("Пакет из {} строк отклонён базой, строки загружаются по одной: {}",
+                    chunk.size(), e.getMostSpecificCause().getMessage());
+            imported = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                List<T> row = List.of(chunk.get(i));
+                try {
+                    imported.addAll(transactionTemplate.execute(status -> handler.insert(row)));
+                } catch (DataAccessException rowException) {
+                    reject(report, chunkLines.get(i), rowException);
+                }
+            }
+        }
+        handler.afterImport(imported);
+        report.setImported(report.getImported() + imported.size());
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    private void reject(ImportReport report, long line, Exception e) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            String message = e instanceof DataAccessException
+                    ? ((DataAccessException) e).getMostSpecificCause().getMessage()
+                    : e.getMessage();
+            report.getErrors().add(new ImportError(line, message));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class LikeImportHandler implements ImportHandler<Like> {
+
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmSimilarity filmSimilarity;
+
+    @Override
+    public String getType() {
+        return "likes";
+    }
+
+    @Override
+    public Class<Like> getRecordClass() {
+        return Like.class;
+    }
+
+    @Override
+    public Like fromCsv(Map<String, String> row) {
+        return new Like(Long.parseLong(row.get("filmId")), Long.parseLong(row.get("userId")));
+    }
+
+    @Override
+    public Like validate(Like like) {
+        if (like.getFilmId() <= 0 || like.getUserId() <= 0) {
+            throw new ValidationException("Идентификаторы фильма и пользователя должны быть положительными");
+        }
+        return like;
+    }
+
+    @Override
+    public List<Like> insert(List<Like> likes) {
+        likeStorage.addLikes(likes);
+        return likes;
+    }
+
+    @Override
+    public void afterImport(List<Like> likes) {
+        Map<Long, Long> addedByFilm = new HashMap<>();
+        for (Like like : likes) {
+            addedByFilm.merge(like.getFilmId(), 1L, Long::sum);
+        }
+        addedByFilm.forEach(filmLeaderboard::changeLikes);
+        if (!likes.isEmpty()) {
+            filmSimilarity.requestRebuild();
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+@Slf4j
+@Component
+public class LikeWriteBehind {
+
+    private static final String ADDED = "+";
+    private static final String REMOVED = "-";
+
+    private final LikeStorage likeStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmSimilarity filmSimilarity;
+    private final boolean enabled;
+    private final int capacity;
+    private final int flushSize;
+    private final Duration flushInterval;
+    private final Path journalFile;
+    private final boolean journalSync;
+    private final Set<Like> pending = new LinkedHashSet<>();
+    private final Map<Long, Set<Long>> pendingByFilm = new HashMap<>();
+    private final Set<Like> inFlight = new HashSet<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final Object journalSyncLock = new Object();
+    private final AtomicLong journalSynced = new AtomicLong();
+    private ScheduledExecutorService writer;
+    private FileChannel journal;
+    private long journalRecords;
+    private long journalPosition;
+    private boolean stopping;
+
+    public LikeWriteBehind(LikeStorage likeStorage,
+                           FilmLeaderboard filmLeaderboard,
+                           FilmSimilarity filmSimilarity,
+                           @Value("${filmorate.likes.write-behind.enabled:false}") boolean enabled,
+                           @Value("${filmorate.likes.write-behind.capacity:10000}") int capacity,
+                           @Value("${filmorate.likes.write-behind.flush-size:500}") int flushSize,
+                           @Value("${filmorate.likes.write-behind.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${filmorate.likes.write-behind.journal:./db/likes-write-behind.log}") String journal,
+                           @Value("${filmorate.likes.write-behind.journal-sync:true}") boolean journalSync) {
+        this.likeStorage = likeStorage;
+        this.filmLeaderboard = filmLeaderboard;
+        this.filmSimilarity = filmSimilarity;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.flushSize = flushSize;
+        this.flushInterval = flushInterval;
+        this.journalFile = Paths.get(journal);
+        this.journalSync = journalSync;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path directory = journalFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Set<Like> replayed = replay();
+        synchronized (this) {
+            journal = FileChannel.open(journalFile, CREATE, WRITE, APPEND);
+            replayed.forEach(this::remember);
+        }
+        if (!replayed.isEmpty()) {
+            log.info("Из журнала восстановлено незаписанных лайков: {}", replayed.size());
+            while (flushBatch()) {
+                log.debug("Записан пакет лайков из журнала");
+            }
+            filmLeaderboard.rebuild();
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "likes-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushAll,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Отложенная запись лайков включена: очередь {}, пакет {}, интервал {}, журнал {}",
+                capacity, flushSize, flushInterval, journalFile.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            stopping = true;
+        }
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Фоновая запись лайков не завершилась за 10 секунд, оставшиеся лайки записываются после неё");
+        }
+        flushAll();
+        synchronized (this) {
+            if (journalSync) {
+                journal.force(false);
+            }
+            journalSynced.accumulateAndGet(journalPosition, Math::max);
+            journal.close();
+            log.info("Отложенная запись лайков остановлена, в журнале осталось: {}", pending.size());
+        }
+    }
+
+    public boolean accept(long filmId, long userId) {
+        Like like = new Like(filmId, userId);
+        if (likeStorage.isExist(filmId, userId)) {
+            return false;
+        }
+        long position = 0;
+        boolean stopped;
+        synchronized (this) {
+            if (pending.contains(like)) {
+                return false;
+            }
+            stopped = stopping;
+            if (!stopped && pending.size() < capacity) {
+                position = append(ADDED, like);
+                remember(like);
+                if (pending.size() >= flushSize && flushRequested.compareAndSet(false, true)) {
+                    writer.execute(this::flushAll);
+                }
+            }
+        }
+        if (position > 0) {
+            syncJournal(position);
+            return true;
+        }
+        if (stopped) {
+            log.info("Отложенная запись лайков остановлена, лайк пользователя {} фильму {} записывается сразу",
+                    userId, filmId);
+        } else {
+            log.warn("Очередь лайков заполнена, лайк пользователя {} фильму {} записывается сразу", userId, filmId);
+        }
+        long similarityVersion = filmSimilarity.getVersion(userId);
+        if (!likeStorage.addLike(filmId, userId)) {
+            return false;
+        }
+        filmSimilarity.likeAdded(filmId, userId, similarityVersion);
+        return true;
+    }
+
+    public boolean cancel(long filmId, long userId) {
+        if (!enabled) {
+            return false;
+        }
+        Like like = new Like(filmId, userId);
+        long position = 0;
+        boolean cancelled;
+        synchronized (this) {
+            while (inFlight.contains(like)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Ожидание записи лайков прервано", e);
+                }
+            }
+            if (journalRecords > 0) {
+                position = append(REMOVED, like);
+            }
+            cancelled = pending.contains(like);
+            if (cancelled) {
+                forget(like);
+            }
+        }
+        syncJournal(position);
+        return cancelled;
+    }
+
+    public Film withPendingLikes(Film film) {
+        if (!enabled) {
+            return film;
+        }
+        Set<Long> userIds;
+        synchronized (this) {
+            Set<Long> pendingUserIds = pendingByFilm.get(film.getId());
+            if (pendingUserIds == null) {
+                return film;
+            }
+            userIds = new HashSet<>(pendingUserIds);
+        }
+        Film merged = new Film(film.getId(),
+                film.getName(),
+                film.getDescription(),
+                film.getReleaseDate(),
+                film.getDuration(),
+                film.getMpa());
+        merged.getLikes().addAll(film.getLikes());
+        merged.getLikes().addAll(userIds);
+        merged.setGenres(film.getGenres());
+        return merged;
+    }
+
+    public List<Film> withPendingLikes(List<Film> films) {
+        if (!enabled) {
+            return films;
+        }
+        return films.stream()
+                .map(this::withPendingLikes)
+                .collect(Collectors.toList());
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flushAll() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+            try {
+                while (flushBatch()) {
+                    log.debug("Записан пакет лайков, в очереди: {}", getPendingCount());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось записать лайки из очереди, повтор через {}: {}", flushInterval, e.getMessage());
+            }
+        }
+    }
+
+    private boolean flushBatch() {
+        List<Like> batch = new ArrayList<>(flushSize);
+        synchronized (this) {
+            for (Like like : pending) {
+                if (batch.size() == flushSize) {
+                    break;
+                }
+                batch.add(like);
+            }
+            inFlight.addAll(batch);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Map<Long, Long> similarityVersions = new HashMap<>();
+        for (Like like : batch) {
+            similarityVersions.computeIfAbsent(like.getUserId(), filmSimilarity::getVersion);
+        }
+        Set<Like> added = new HashSet<>();
+        Set<Like> rejected = new HashSet<>();
+        boolean written = false;
+        try {
+            write(batch, added, rejected);
+            written = true;
+        } finally {
+            updateSimilarity(added, similarityVersions);
+            synchronized (this) {
+                inFlight.clear();
+                if (written) {
+                    batch.forEach(this::forget);
+                } else {
+                    added.forEach(this::forget);
+                    rejected.forEach(this::forget);
+                }
+                if (written || !added.isEmpty() || !rejected.isEmpty()) {
+                    compactJournal();
+                }
+                notifyAll();
+            }
+            for (Like like : batch) {
+                if (rejected.contains(like) || written && !added.contains(like)) {
+                    filmLeaderboard.revertLikes(like.getFilmId(), 1);
+                }
+            }
+        }
+        return batch.size() == flushSize;
+    }
+
+    private void write(List<Like> batch, Set<Like> added, Set<Like> rejected) {
+        try {
+            added.addAll(likeStorage.addLikesIfAbsent(batch));
+        } catch (DataIntegrityViolationException e) {
+            for (Like like : batch) {
+                try {
+                    added.addAll(likeStorage.addLikesIfAbsent(List.of(like)));
+                } catch (DataIntegrityViolationException rowException) {
+                    rejected.add(like);
+                    log.warn("Лайк пользователя {} фильму {} отклонён базой: {}", like.getUserId(), like.getFilmId(),
+                            rowException.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private void updateSimilarity(Set<Like> added, Map<Long, Long> similarityVersions) {
+        Map<Long, List<Long>> filmIdsByUser = new HashMap<>();
+        for (Like like : added) {
+            filmIdsByUser.computeIfAbsent(like.getUserId(), userId -> new ArrayList<>()).add(like.getFilmId());
+        }
+        filmIdsByUser.forEach((userId, filmIds) -> filmSimilarity.likesAdded(userId,
+                filmIds.stream().mapToLong(Long::longValue).toArray(), similarityVersions.get(userId)));
+    }
+
+    private void remember(Like like) {
+        pending.add(like);
+        pendingByFilm.computeIfAbsent(like.getFilmId(), filmId -> new HashSet<>()).add(like.getUserId());
+    }
+
+    private void forget(Like like) {
+        pending.remove(like);
+        Set<Long> userIds = pendingByFilm.get(like.getFilmId());
+        if (userIds != null) {
+            userIds.remove(like.getUserId());
+            if (userIds.isEmpty()) {
+                pendingByFilm.remove(like.getFilmId());
+            }
+        }
+    }
+
+    private Set<Like> replay() throws IOException {
+        Set<Like> replayed = new LinkedHashSet<>();
+        if (!Files.exists(journalFile)) {
+            return replayed;
+        }
+        String content = new String(Files.readAllBytes(journalFile), StandardCharsets.US_ASCII);
+        int end = content.lastIndexOf('\n');
+        if (end < 0) {
+            return replayed;
+        }
+        for (String record : content.substring(0, end).split("\n")) {
+            String[] parts = record.split(" ");
+            if (parts.length != 3) {
+                continue;
+            }
+            Like like = new Like(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+            if (ADDED.equals(parts[0])) {
+                replayed.add(like);
+            } else {
+                replayed.remove(like);
+            }
+            journalRecords++;
+        }
+        return replayed;
+    }
+
+    private long append(String operation, Like like) {
+        try {
+            journal.write(record(operation, like));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать лайк в журнал " + journalFile, e);
+        }
+        journalRecords++;
+        return ++journalPosition;
+    }
+
+    private void syncJournal(long position) {
+        if (!journalSync || journalSynced.get() >= position) {
+            return;
+        }
+        synchronized (journalSyncLock) {
+            while (journalSynced.get() < position) {
+                FileChannel channel;
+                long target;
+                synchronized (this) {
+                    channel = journal;
+                    target = journalPosition;
+                }
+                try {
+                    channel.force(false);
+                    journalSynced.accumulateAndGet(target, Math::max);
+                } catch (ClosedChannelException e) {
+                    log.debug("Журнал лайков заменён при сжатии, синхронизация повторяется");
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Не удалось сбросить журнал лайков на диск " + journalFile, e);
+                }
+            }
+        }
+    }
+
+    private void compactJournal() {
+        try {
+            if (pending.isEmpty()) {
+                journal.truncate(0);
+                if (journalSync) {
+                    journal.force(true);
+                }
+                journalRecords = 0;
+                journalSynced.accumulateAndGet(journalPosition, Math::max);
+                return;
+            }
+            if (journalRecords <= 2L * capacity) {
+                return;
+            }
+            Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(compacted, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                for (Like like : pending) {
+                    channel.write(record(ADDED, like));
+                }
+                channel.force(true);
+            }
+            journal.close();
+            Files.move(compacted, journalFile, REPLACE_EXISTING, ATOMIC_MOVE);
+            journal = FileChannel.open(journalFile, WRITE, APPEND);
+            journalRecords = pending.size();
+            journalSynced.accumulateAndGet(journalPosition, Math::max);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сжать журнал лайков " + journalFile, e);
+        }
+    }
+
+    private static ByteBuffer record(String operation, Like like) {
+        String record = operation + " " + like.getFilmId() + " " + like.getUserId() + "\n";
+        return ByteBuffer.wrap(record.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.ReactiveFilmStorage;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveFilmService {
+
+    private final ReactiveFilmStorage reactiveFilmStorage;
+
+    public Flux<Film> streamAllFilms() {
+        return reactiveFilmStorage.getFilmsWithDetails();
+    }
+
+    public Mono<Film> findFilmById(String filmById) {
+        long id = Validator.convertToLongFilm(filmById);
+        return reactiveFilmStorage.findFilmWithDetailsById(id)
+                .switchIfEmpty(Mono.error(() -> new FilmNotFoundException(id)));
+    }
+
+    public Flux<Film> findPopularFilms(String count) {
+        long size = Validator.convertToLongFilm(count);
+        log.info("Список популярных фильмов, реактивное чтение");
+        return reactiveFilmStorage.getPopularFilms(size);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.ReactiveUserStorage;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private final ReactiveUserStorage reactiveUserStorage;
+
+    public Flux<User> streamAllUsers() {
+        return reactiveUserStorage.getAllUsers();
+    }
+
+    public Mono<User> findUserById(String userId) {
+        long id = Validator.convertToLongUser(userId);
+        return reactiveUserStorage.findUserById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    public Flux<User> friendsList(String user) {
+        long userId = Validator.convertToLongUser(user);
+        log.info("Список друзей пользователя № {}, реактивное чтение", userId);
+        return reactiveUserStorage.findFriends(userId);
+    }
+
+    public Flux<User> mutualFriends(String userOne, String userTwo) {
+        long userOneId = Validator.convertToLongUser(userOne);
+        long userTwoId = Validator.convertToLongUser(userTwo);
+        log.info("Список общих друзей пользователей № {} и № {}, реактивное чтение", userOneId, userTwoId);
+        return reactiveUserStorage.findCommonFriends(userOneId, userTwoId);
+    }
+}
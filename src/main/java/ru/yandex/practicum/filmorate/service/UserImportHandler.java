@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class UserImportHandler implements ImportHandler<User> {
+
+    private final UserStorage userStorage;
+
+    @Override
+    public String getType() {
+        return "users";
+    }
+
+    @Override
+    public Class<User> getRecordClass() {
+        return User.class;
+    }
+
+    @Override
+    public User fromCsv(Map<String, String> row) {
+        return new User(null,
+                row.get("email"),
+                row.getOrDefault("name", ""),
+                row.get("login"),
+                LocalDate.parse(row.get("birthday")));
+    }
+
+    @Override
+    public User validate(User user) {
+        if (user.getBirthday() == null) {
+            throw new ValidationException("Дата рождения некорректна. ");
+        }
+        Validator.validateUser(user);
+        String name = user.getName() == null || user.getName().isBlank() ? user.getLogin() : user.getName();
+        return new User(null, user.getEmail(), name, user.getLogin(), user.getBirthday());
+    }
+
+    @Override
+    public List<User> insert(List<User> users) {
+        userStorage.addUsers(users);
+        return users;
+    }
+
+    @Override
+    public void afterImport(List<User> users) {
+    }
+}
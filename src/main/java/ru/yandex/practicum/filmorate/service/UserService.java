@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import ru.yandex.practicum.filmorate.exception.ObjectNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.exception.WorkApplicationException;
@@ -15,6 +16,7 @@ import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -24,12 +26,31 @@ public class UserService {
     @Qualifier("UserDbStorage")
     private final UserStorage userStorage;
     private final FriendshipStorage friendsStorage;
+    private final FriendSuggestions friendSuggestions;
     private static final String USER_WITH_NUMBER = "Пользователь № ";
 
     public List<User> findAllUsers() {
         return new ArrayList<>(userStorage.getAllUsers());
     }
 
+    public List<User> findUsersPage(Long afterId, Integer limit) {
+        long pageAfterId = afterId == null ? 0 : afterId;
+        int pageLimit = limit == null ? Validator.DEFAULT_PAGE_SIZE : limit;
+        Validator.validatePage(pageAfterId, pageLimit);
+        log.info("Страница пользователей после id {}", pageAfterId);
+        return userStorage.getUsersPage(pageAfterId, pageLimit);
+    }
+
+    public void streamAllUsers(Consumer<User> consumer) {
+        List<User> page = userStorage.getUsersPage(0, Validator.MAX_PAGE_SIZE);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            long afterId = page.get(page.size() - 1).getId();
+            page = userStorage.getUsersPage(afterId, Validator.MAX_PAGE_SIZE);
+        }
+        log.info("Список всех пользователей выгружен потоком");
+    }
+
     public User createUser(User user) {
         Validator.validateUser(user);
         if (user.getName().isBlank()) {
@@ -119,10 +140,7 @@ public class UserService {
 
     public List<User> friendsList(String user) {
         long userId = Validator.convertToLongUser(user);
-        List<User> friendsList = new ArrayList<>();
-        for (Long friend : friendsStorage.getAllById(userId)) {
-            friendsList.add(userStorage.findUserById(friend).get());
-        }
+        List<User> friendsList = userStorage.findUsersByIds(friendsStorage.getAllById(userId));
         log.info("Список друзей пользователя № " + userId);
         return friendsList;
     }
@@ -130,13 +148,43 @@ public class UserService {
     public List<User> mutualFriends(String userOne, String userTwo) {
         long userOneId = Validator.convertToLongUser(userOne);
         long userTwoId = Validator.convertToLongUser(userTwo);
-        Set<Long> friends = new HashSet<>(friendsStorage.getAllById(userOneId));
-        friends.retainAll(friendsStorage.getAllById(userTwoId));
-        List<User> mutualFriends = new ArrayList<>();
-        for (Long user : friends) {
-            mutualFriends.add(userStorage.findUserById(user).get());
-        }
+        List<User> mutualFriends = userStorage.findUsersByIds(friendsStorage.getCommonById(userOneId, userTwoId));
         log.info("Список общих друзей пользователя № " + userOneId + " и пользователя № " + userTwoId);
         return mutualFriends;
     }
+
+    public List<User> findFriendshipPath(String user, String other) {
+        long userId = Validator.convertToLongUser(user);
+        long otherId = Validator.convertToLongUser(other);
+        for (long id : List.of(userId, otherId)) {
+            if (userStorage.findUserById(id).isEmpty()) {
+                throw new UserNotFoundException(id);
+            }
+        }
+        List<Long> path = friendsStorage.findPath(userId, otherId);
+        if (path.isEmpty()) {
+            log.info("Цепочка друзей от пользователя № " + userId + " до пользователя № " + otherId + " не найдена");
+            throw new ObjectNotFoundException("Цепочка друзей между пользователями " + userId + " и " + otherId
+                    + " не найдена");
+        }
+        log.info("Цепочка друзей от пользователя № " + userId + " до пользователя № " + otherId
+                + " длиной " + (path.size() - 1));
+        return userStorage.findUsersByIds(path);
+    }
+
+    public List<User> suggestFriends(String user, Integer limit) {
+        long userId = Validator.convertToLongUser(user);
+        int suggestionsLimit = limit == null ? Validator.DEFAULT_SUGGESTIONS : limit;
+        Validator.validateSuggestionsLimit(suggestionsLimit);
+        if (userStorage.findUserById(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+        long[] suggestedIds = friendSuggestions.suggest(userId, suggestionsLimit);
+        List<Long> ids = new ArrayList<>(suggestedIds.length);
+        for (long suggestedId : suggestedIds) {
+            ids.add(suggestedId);
+        }
+        log.info("Рекомендации друзей для пользователя № " + userId);
+        return userStorage.findUsersByIds(ids);
+    }
 }
@@ -11,6 +11,8 @@ import ru.yandex.practicum.filmorate.model.User;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @UtilityClass
@@ -21,6 +23,13 @@ public class Validator {
     private static final String FIRST_FILM_RELEASE =
             "Дата выпуска фильма не может быть раньше первого в истории человечества кинопоказа в Париже.";
     private static final String MUST_BE_NUMBER = "\" должно быть числом";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 500;
+    public static final int DEFAULT_SUGGESTIONS = 10;
+    public static final int MAX_SUGGESTIONS = 100;
+    public static final int DEFAULT_SIMILAR = 10;
+    public static final int MAX_SIMILAR = 50;
 
     public static boolean validateFilm(Film film) throws ValidationException {
         if (StringUtils.isBlank(film.getName())) {
@@ -81,4 +90,38 @@ public class Validator {
         }
         return count;
     }
+
+    public static void validateBatch(List<Long> ids) {
+        if (ids == null || ids.stream().anyMatch(Objects::isNull)) {
+            log.info("Список идентификаторов фильмов не задан или содержит пустые значения");
+            throw new ValidationException("Список идентификаторов должен быть задан и не может содержать пустые значения");
+        } else if (ids.size() > MAX_BATCH_SIZE) {
+            log.info("Запрошено {} фильмов за раз", ids.size());
+            throw new ValidationException("За один запрос можно получить не больше " + MAX_BATCH_SIZE + " фильмов");
+        }
+    }
+
+    public static void validatePage(long afterId, int limit) {
+        if (afterId < 0) {
+            log.info("Идентификатор начала страницы не может быть отрицательным: {}", afterId);
+            throw new ValidationException("Идентификатор начала страницы не может быть отрицательным");
+        } else if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.info("Размер страницы {} вне допустимого диапазона", limit);
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static void validateSuggestionsLimit(int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            log.info("Количество рекомендаций {} вне допустимого диапазона", limit);
+            throw new ValidationException("Количество рекомендаций должно быть от 1 до " + MAX_SUGGESTIONS);
+        }
+    }
+
+    public static void validateSimilarLimit(int limit) {
+        if (limit <= 0 || limit > MAX_SIMILAR) {
+            log.info("Количество похожих фильмов {} вне допустимого диапазона", limit);
+            throw new ValidationException("Количество похожих фильмов должно быть от 1 до " + MAX_SIMILAR);
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+public class ReferenceCache<T> {
+
+    private static final int MAX_CACHED_ID = 1 << 16;
+
+    private final ToLongFunction<T> idExtractor;
+    private final UnaryOperator<T> copier;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Object[] valuesById = new Object[0];
+    private volatile List<T> allValues;
+
+    public ReferenceCache(ToLongFunction<T> idExtractor, UnaryOperator<T> copier) {
+        this.idExtractor = idExtractor;
+        this.copier = copier;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(long id) {
+        Object[] values = valuesById;
+        if (id >= 0 && id < values.length && values[(int) id] != null) {
+            hits.incrementAndGet();
+            return copier.apply((T) values[(int) id]);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public List<T> getAll() {
+        List<T> values = allValues;
+        if (values == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return values.stream().map(copier).collect(Collectors.toList());
+    }
+
+    public synchronized void load(List<T> source) {
+        List<T> values = source.stream().map(copier).collect(Collectors.toUnmodifiableList());
+        int length = 0;
+        for (T value : values) {
+            long id = idExtractor.applyAsLong(value);
+            if (id >= 0 && id < MAX_CACHED_ID) {
+                length = Math.max(length, (int) id + 1);
+            }
+        }
+        Object[] loaded = new Object[length];
+        for (T value : values) {
+            long id = idExtractor.applyAsLong(value);
+            if (id >= 0 && id < MAX_CACHED_ID) {
+                loaded[(int) id] = value;
+            }
+        }
+        valuesById = loaded;
+        allValues = values;
+    }
+
+    public synchronized void put(T value) {
+        long id = idExtractor.applyAsLong(value);
+        if (id < 0 || id >= MAX_CACHED_ID) {
+            return;
+        }
+        Object[] values = valuesById;
+        Object[] updated = Arrays.copyOf(values, Math.max(values.length, (int) id + 1));
+        if (updated[(int) id] == null) {
+            allValues = null;
+        }
+        updated[(int) id] = copier.apply(value);
+        valuesById = updated;
+    }
+
+    public synchronized void invalidate(long id) {
+        Object[] values = valuesById;
+        if (id >= 0 && id < values.length) {
+            Object[] updated = values.clone();
+            updated[(int) id] = null;
+            valuesById = updated;
+        }
+        allValues = null;
+    }
+
+    public synchronized void invalidateAll() {
+        valuesById = new Object[0];
+        allValues = null;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
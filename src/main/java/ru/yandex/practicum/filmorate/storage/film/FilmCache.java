@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class FilmCache {
+
+    private static final int MAX_EVICTION_HISTORY = 10_000;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Long, CachedFilm> films;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Map<Long, Long> evictedAt = new HashMap<>();
+    private long clock;
+    private long loadFloor;
+
+    public FilmCache(@Value("${filmorate.cache.films.max-size:10000}") int maxSize,
+                     @Value("${filmorate.cache.films.ttl:10m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.films = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedFilm> eldest) {
+                if (size() > FilmCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.info("Кэш фильмов: максимум {} записей, время жизни {}", maxSize, ttl);
+    }
+
+    public synchronized Film get(long filmId) {
+        CachedFilm cachedFilm = films.get(filmId);
+        if (cachedFilm == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - cachedFilm.loadedAt > ttlNanos) {
+            films.remove(filmId);
+            evictions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copyOf(cachedFilm.film);
+    }
+
+    public synchronized long getVersion() {
+        return clock;
+    }
+
+    public synchronized void put(Film film, long version) {
+        if (maxSize <= 0 || version < loadFloor || evictedAt.getOrDefault(film.getId(), 0L) > version) {
+            return;
+        }
+        films.put(film.getId(), new CachedFilm(copyOf(film), System.nanoTime()));
+    }
+
+    public void evict(long filmId) {
+        evictNow(filmId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evictNow(filmId);
+                }
+            });
+        }
+    }
+
+    public synchronized void clear() {
+        clock++;
+        loadFloor = clock;
+        evictedAt.clear();
+        films.clear();
+    }
+
+    public synchronized int size() {
+        return films.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    private synchronized void evictNow(long filmId) {
+        clock++;
+        if (evictedAt.size() >= MAX_EVICTION_HISTORY) {
+            loadFloor = clock;
+            evictedAt.clear();
+        }
+        evictedAt.put(filmId, clock);
+        films.remove(filmId);
+    }
+
+    private static Film copyOf(Film film) {
+        Mpa mpa = film.getMpa();
+        Film copy = new Film(film.getId(),
+                film.getName(),
+                film.getDescription(),
+                film.getReleaseDate(),
+                film.getDuration(),
+                mpa == null ? null : new Mpa(mpa.getId(), mpa.getName()));
+        copy.getLikes().addAll(film.getLikes());
+        for (Genre genre : film.getGenres()) {
+            copy.getGenres().add(new Genre(genre.getId(), genre.getName()));
+        }
+        return copy;
+    }
+
+    @RequiredArgsConstructor
+    private static final class CachedFilm {
+        private final Film film;
+        private final long loadedAt;
+    }
+}
@@ -0,0 +1,144 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Primary
+@Repository("FilmCachedStorage")
+public class FilmCachedStorage implements FilmStorage {
+
+    private final FilmStorage filmStorage;
+    private final FilmCache filmCache;
+
+    public FilmCachedStorage(@Qualifier("FilmDbStorage") FilmStorage filmStorage, FilmCache filmCache) {
+        this.filmStorage = filmStorage;
+        this.filmCache = filmCache;
+    }
+
+    @Override
+    public List<Film> getFilms() {
+        return filmStorage.getFilms();
+    }
+
+    @Override
+    public List<Film> getFilmsWithDetails() {
+        return filmStorage.getFilmsWithDetails();
+    }
+
+    @Override
+    public List<Film> findFilmsWithDetailsByIds(Collection<Long> filmIds) {
+        Map<Long, Film> filmsById = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long filmId : filmIds) {
+            Film film = filmCache.get(filmId);
+            if (film != null) {
+                filmsById.put(filmId, film);
+            } else {
+                missingIds.add(filmId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            long version = filmCache.getVersion();
+            for (Film film : filmStorage.findFilmsWithDetailsByIds(missingIds)) {
+                filmsById.put(film.getId(), film);
+                filmCache.put(film, version);
+            }
+        }
+        List<Film> films = new ArrayList<>(filmsById.size());
+        for (Long filmId : filmIds) {
+            Film film = filmsById.get(filmId);
+            if (film != null) {
+                films.add(film);
+            }
+        }
+        return films;
+    }
+
+    @Override
+    public List<Film> getFilmsWithDetailsPage(long afterId, int limit) {
+        return filmStorage.getFilmsWithDetailsPage(afterId, limit);
+    }
+
+    @Override
+    public Optional<Film> findFilmWithDetailsById(long filmId) {
+        Film film = filmCache.get(filmId);
+        if (film != null) {
+            return Optional.of(film);
+        }
+        long version = filmCache.getVersion();
+        Optional<Film> filmOptional = filmStorage.findFilmWithDetailsById(filmId);
+        filmOptional.ifPresent(filmLoaded -> filmCache.put(filmLoaded, version));
+        return filmOptional;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(long count) {
+        return filmStorage.getPopularFilms(count);
+    }
+
+    @Override
+    public Film addFilm(Film film) {
+        return filmStorage.addFilm(film);
+    }
+
+    @Override
+    public List<Film> addFilms(List<Film> films) {
+        return filmStorage.addFilms(films);
+    }
+
+    @Override
+    public void putFilm(Film film) {
+        filmStorage.putFilm(film);
+        filmCache.evict(film.getId());
+    }
+
+    @Override
+    public void deleteFilm(Film film) {
+        filmStorage.deleteFilm(film);
+        filmCache.evict(film.getId());
+    }
+
+    @Override
+    public Optional<Film> findFilmById(Long filmId) {
+        return filmStorage.findFilmById(filmId);
+    }
+
+    @Override
+    public void addGenreToFilm(long filmId, long genreId) {
+        filmStorage.addGenreToFilm(filmId, genreId);
+        filmCache.evict(filmId);
+    }
+
+    @Override
+    public void addGenresToFilm(long filmId, Collection<Long> genreIds) {
+        filmStorage.addGenresToFilm(filmId, genreIds);
+        filmCache.evict(filmId);
+    }
+
+    @Override
+    public void replaceGenresFilm(long filmId, Collection<Long> genreIds) {
+        filmStorage.replaceGenresFilm(filmId, genreIds);
+        filmCache.evict(filmId);
+    }
+
+    @Override
+    public List<Genre> getGenreFilmById(long id) {
+        return filmStorage.getGenreFilmById(id);
+    }
+
+    @Override
+    public void removeGenreFilm(long filmId) {
+        filmStorage.removeGenreFilm(filmId);
+        filmCache.evict(filmId);
+    }
+}
@@ -3,21 +3,37 @@ package ru.yandex.practicum.filmorate.storage.film;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.like.LikeIndex;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import static ru.yandex.practicum.filmorate.model.Mappers.FILM_MAPPER;
+import static ru.yandex.practicum.filmorate.model.Mappers.FILM_WITH_MPA_MAPPER;
 import static ru.yandex.practicum.filmorate.model.Mappers.GENRE_MAPPER;
 
 @Slf4j
@@ -26,6 +42,9 @@ import static ru.yandex.practicum.filmorate.model.Mappers.GENRE_MAPPER;
 public class FilmDbStorage implements FilmStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final LikeIndex likeIndex;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
     private static final String SELECT_FROM_FILMS = "SELECT * FROM FILMS";
     private static final String INSERT_INTO_FIL_MS_NAME_DESCRIPTION_RELEASEDATE_DURATION_MPA_ID_VALUES =
             "INSERT INTO FIlMS (NAME, DESCRIPTION, RELEASEDATE, DURATION, MPA_ID) VALUES (?, ?, ?, ?, ?)";
@@ -39,9 +58,23 @@ public class FilmDbStorage implements FilmStorage {
             "INSERT INTO FILMS_GENRE(FILM_ID, GENRE_ID) VALUES (?, ?)";
     private static final String DELETE_FROM_FILMS_GENRE_WHERE_FILM_ID =
             "DELETE FROM FILMS_GENRE WHERE FILM_ID = ?";
+    private static final String DELETE_FROM_FILMS_GENRE_WHERE_FILM_ID_AND_GENRE_ID =
+            "DELETE FROM FILMS_GENRE WHERE FILM_ID = ? AND GENRE_ID = ?";
+    private static final String SELECT_GENRE_ID_FROM_FILMS_GENRE =
+            "SELECT GENRE_ID FROM FILMS_GENRE WHERE FILM_ID = ?";
     private static final String SELECT_FROM_FILMS_GENRE =
             "SELECT g.* FROM FILMS_GENRE AS fg " + "JOIN GENRE AS g ON fg.GENRE_ID = g.GENRE_ID " +
                     "WHERE fg.FILM_ID =? " + "ORDER BY g.GENRE_ID";
+    private static final String SELECT_FILMS_WITH_MPA =
+            "SELECT f.FILM_ID, f.NAME, f.DESCRIPTION, f.RELEASEDATE, f.DURATION, f.MPA_ID, m.NAME AS MPA_NAME " +
+                    "FROM FILMS AS f LEFT JOIN MPA AS m ON f.MPA_ID = m.MPA_ID ";
+    private static final String SELECT_GENRES_OF_FILMS =
+            "SELECT fg.FILM_ID, g.GENRE_ID, g.NAME FROM FILMS_GENRE AS fg " +
+                    "JOIN GENRE AS g ON fg.GENRE_ID = g.GENRE_ID ";
+    private static final String SELECT_POPULAR_FILM_IDS =
+            "SELECT FILM_ID FROM FILMS ORDER BY LIKES_COUNT DESC, FILM_ID LIMIT ?";
+    private static final String SELECT_LIKES_OF_FILMS =
+            "SELECT FILM_ID, USER_ID FROM LIKES ";
 
     @Override
     public List<Film> getFilms() {
@@ -53,6 +86,73 @@ public class FilmDbStorage implements FilmStorage {
     }
 
     @Override
+    public List<Film> getFilmsWithDetails() {
+        List<Film> films = jdbcTemplate.query(SELECT_FILMS_WITH_MPA + "ORDER BY f.FILM_ID", FILM_WITH_MPA_MAPPER);
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            filmsById.put(film.getId(), film);
+        }
+        jdbcTemplate.query(SELECT_GENRES_OF_FILMS + "ORDER BY g.GENRE_ID", genresCollector(filmsById));
+        jdbcTemplate.query(SELECT_LIKES_OF_FILMS, likesCollector(filmsById));
+        return films;
+    }
+
+    @Override
+    public List<Film> findFilmsWithDetailsByIds(Collection<Long> filmIds) {
+        Map<Long, Film> filmsById = new HashMap<>();
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(filmIds));
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", chunk);
+            namedParameterJdbcTemplate.query(SELECT_FILMS_WITH_MPA + "WHERE f.FILM_ID IN (:ids)", params,
+                    rs -> {
+                        Film film = FILM_WITH_MPA_MAPPER.mapRow(rs, rs.getRow());
+                        filmsById.put(Objects.requireNonNull(film).getId(), film);
+                    });
+            fillGenresAndLikes(filmsById, params);
+        }
+        List<Film> films = new ArrayList<>(filmsById.size());
+        for (Long filmId : filmIds) {
+            Film film = filmsById.get(filmId);
+            if (film != null) {
+                films.add(film);
+            }
+        }
+        return films;
+    }
+
+    @Override
+    public List<Film> getFilmsWithDetailsPage(long afterId, int limit) {
+        List<Film> films = jdbcTemplate.query(SELECT_FILMS_WITH_MPA + "WHERE f.FILM_ID > ? ORDER BY f.FILM_ID LIMIT ?",
+                FILM_WITH_MPA_MAPPER, afterId, limit);
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            filmsById.put(film.getId(), film);
+        }
+        if (!filmsById.isEmpty()) {
+            fillGenresAndLikes(filmsById, new MapSqlParameterSource("ids", filmsById.keySet()));
+        }
+        return films;
+    }
+
+    @Override
+    public Optional<Film> findFilmWithDetailsById(long filmId) {
+        List<Film> films = findFilmsWithDetailsByIds(List.of(filmId));
+        if (films.isEmpty()) {
+            log.info("Фильм id{} не найден.", filmId);
+            return Optional.empty();
+        }
+        return Optional.of(films.get(0));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(long count) {
+        List<Long> filmIds = jdbcTemplate.queryForList(SELECT_POPULAR_FILM_IDS, Long.class, count);
+        return findFilmsWithDetailsByIds(filmIds);
+    }
+
+    @Override
+    @Transactional
     public Film addFilm(Film film) {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
@@ -72,12 +172,63 @@ public class FilmDbStorage implements FilmStorage {
                 film.getDuration(),
                 film.getMpa());
         newFilm.getGenres().addAll(film.getGenres());
+        List<Long> genreIds = new ArrayList<>(newFilm.getGenres().size());
         for (Genre genre : newFilm.getGenres()) {
-            addGenreToFilm(newFilm.getId(), genre.getId());
+            genreIds.add(genre.getId());
         }
+        addGenresToFilm(newFilm.getId(), genreIds);
         return newFilm;
     }
 
+    @Override
+    @Transactional
+    public List<Film> addFilms(List<Film> films) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    INSERT_INTO_FIL_MS_NAME_DESCRIPTION_RELEASEDATE_DURATION_MPA_ID_VALUES, new String[]{"film_id"})) {
+                for (Film film : films) {
+                    stmt.setString(1, film.getName());
+                    stmt.setString(2, film.getDescription());
+                    stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+                    stmt.setInt(4, film.getDuration());
+                    stmt.setLong(5, film.getMpa().getId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                List<Long> generatedIds = new ArrayList<>(films.size());
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generatedIds.add(keys.getLong(1));
+                    }
+                }
+                return generatedIds;
+            }
+        });
+        if (Objects.requireNonNull(ids).size() != films.size()) {
+            throw new IncorrectResultSizeDataAccessException(films.size(), ids.size());
+        }
+        List<Film> newFilms = new ArrayList<>(films.size());
+        List<Object[]> genres = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            Film newFilm = new Film(ids.get(i),
+                    film.getName(),
+                    film.getDescription(),
+                    film.getReleaseDate(),
+                    film.getDuration(),
+                    film.getMpa());
+            newFilm.getGenres().addAll(film.getGenres());
+            for (Genre genre : newFilm.getGenres()) {
+                genres.add(new Object[]{newFilm.getId(), genre.getId()});
+            }
+            newFilms.add(newFilm);
+        }
+        if (!genres.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INTO_FILMS_GENRE_FILM, genres);
+        }
+        return newFilms;
+    }
+
     @Override
     public void putFilm(Film film) {
         this.jdbcTemplate.update(UPDATE_FILMS_SET_NAME_DESCRIPTION_RELEASEDATE,
@@ -92,6 +243,7 @@ public class FilmDbStorage implements FilmStorage {
     @Override
     public void deleteFilm(Film film) {
         this.jdbcTemplate.update(DELETE_FROM_FILMS_WHERE_FILM_ID, film.getId());
+        likeIndex.removeFilm(film.getId());
     }
 
     @Override
@@ -111,6 +263,36 @@ public class FilmDbStorage implements FilmStorage {
         jdbcTemplate.update(INSERT_INTO_FILMS_GENRE_FILM, filmId, genreId);
     }
 
+    @Override
+    public void addGenresToFilm(long filmId, Collection<Long> genreIds) {
+        List<Object[]> batch = new ArrayList<>(genreIds.size());
+        for (Long genreId : new LinkedHashSet<>(genreIds)) {
+            batch.add(new Object[]{filmId, genreId});
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INTO_FILMS_GENRE_FILM, batch);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void replaceGenresFilm(long filmId, Collection<Long> genreIds) {
+        Set<Long> currentGenreIds = new HashSet<>(
+                jdbcTemplate.queryForList(SELECT_GENRE_ID_FROM_FILMS_GENRE, Long.class, filmId));
+        Set<Long> newGenreIds = new LinkedHashSet<>(genreIds);
+        List<Object[]> removed = new ArrayList<>();
+        for (Long genreId : currentGenreIds) {
+            if (!newGenreIds.contains(genreId)) {
+                removed.add(new Object[]{filmId, genreId});
+            }
+        }
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_FROM_FILMS_GENRE_WHERE_FILM_ID_AND_GENRE_ID, removed);
+        }
+        newGenreIds.removeAll(currentGenreIds);
+        addGenresToFilm(filmId, newGenreIds);
+    }
+
     @Override
     public List<Genre> getGenreFilmById(long id) {
         return jdbcTemplate.query(SELECT_FROM_FILMS_GENRE, GENRE_MAPPER, id);
@@ -120,4 +302,29 @@ public class FilmDbStorage implements FilmStorage {
     public void removeGenreFilm(long filmId) {
         jdbcTemplate.update(DELETE_FROM_FILMS_GENRE_WHERE_FILM_ID, filmId);
     }
+
+    private void fillGenresAndLikes(Map<Long, Film> filmsById, MapSqlParameterSource params) {
+        namedParameterJdbcTemplate.query(SELECT_GENRES_OF_FILMS + "WHERE fg.FILM_ID IN (:ids) ORDER BY g.GENRE_ID",
+                params, genresCollector(filmsById));
+        namedParameterJdbcTemplate.query(SELECT_LIKES_OF_FILMS + "WHERE FILM_ID IN (:ids)",
+                params, likesCollector(filmsById));
+    }
+
+    private static RowCallbackHandler genresCollector(Map<Long, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getLong("film_id"));
+            if (film != null) {
+                film.getGenres().add(GENRE_MAPPER.mapRow(rs, rs.getRow()));
+            }
+        };
+    }
+
+    private static RowCallbackHandler likesCollector(Map<Long, Film> filmsById) {
+        return rs -> {
+            Film film = filmsById.get(rs.getLong("film_id"));
+            if (film != null) {
+                film.getLikes().add(rs.getLong("user_id"));
+            }
+        };
+    }
 }
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Repository("FilmR2dbcStorage")
+public class FilmR2dbcStorage implements ReactiveFilmStorage {
+
+    private static final int HYDRATION_CHUNK_SIZE = 500;
+    private static final String SELECT_FILMS_WITH_MPA =
+            "SELECT f.FILM_ID, f.NAME, f.DESCRIPTION, f.RELEASEDATE, f.DURATION, f.MPA_ID, m.NAME AS MPA_NAME " +
+                    "FROM FILMS AS f LEFT JOIN MPA AS m ON f.MPA_ID = m.MPA_ID ";
+    private static final String SELECT_FILMS_PAGE =
+            SELECT_FILMS_WITH_MPA + "WHERE f.FILM_ID > :afterId ORDER BY f.FILM_ID LIMIT :limit";
+    private static final String SELECT_GENRES_OF_FILMS =
+            "SELECT fg.FILM_ID, g.GENRE_ID, g.NAME FROM FILMS_GENRE AS fg " +
+                    "JOIN GENRE AS g ON fg.GENRE_ID = g.GENRE_ID WHERE fg.FILM_ID IN (:ids) ORDER BY g.GENRE_ID";
+    private static final String SELECT_LIKES_OF_FILMS =
+            "SELECT FILM_ID, USER_ID FROM LIKES WHERE FILM_ID IN (:ids)";
+    private static final String SELECT_POPULAR_FILMS =
+            SELECT_FILMS_WITH_MPA + "ORDER BY f.LIKES_COUNT DESC, f.FILM_ID LIMIT :count";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<Film> getFilmsWithDetails() {
+        return getFilmsPage(0)
+                .expand(page -> page.size() < HYDRATION_CHUNK_SIZE
+                        ? Mono.empty()
+                        : getFilmsPage(page.get(page.size() - 1).getId()))
+                .concatMap(this::fillGenresAndLikes);
+    }
+
+    @Override
+    public Mono<Film> findFilmWithDetailsById(long filmId) {
+        return databaseClient.sql(SELECT_FILMS_WITH_MPA + "WHERE f.FILM_ID = :id")
+                .bind("id", filmId)
+                .map((row, metadata) -> mapFilm(row))
+                .all()
+                .collectList()
+                .flatMap(films -> fillGenresAndLikes(films).next());
+    }
+
+    @Override
+    public Flux<Film> getPopularFilms(long count) {
+        return databaseClient.sql(SELECT_POPULAR_FILMS)
+                .bind("count", count)
+                .map((row, metadata) -> mapFilm(row))
+                .all()
+                .collectList()
+                .flatMapMany(this::fillGenresAndLikes);
+    }
+
+    private Mono<List<Film>> getFilmsPage(long afterId) {
+        return databaseClient.sql(SELECT_FILMS_PAGE)
+                .bind("afterId", afterId)
+                .bind("limit", HYDRATION_CHUNK_SIZE)
+                .map((row, metadata) -> mapFilm(row))
+                .all()
+                .collectList();
+    }
+
+    private Flux<Film> fillGenresAndLikes(List<Film> films) {
+        if (films.isEmpty()) {
+            return Flux.empty();
+        }
+        Map<Long, Film> filmsById = new HashMap<>();
+        for (Film film : films) {
+            filmsById.put(film.getId(), film);
+        }
+        Mono<Void> genres = databaseClient.sql(SELECT_GENRES_OF_FILMS)
+                .bind("ids", filmsById.keySet())
+                .map((row, metadata) -> new AbstractMap.SimpleEntry<>(getLong(row, "film_id"),
+                        new Genre(getLong(row, "genre_id"), row.get("name", String.class))))
+                .all()
+                .doOnNext(entry -> filmsById.get(entry.getKey()).getGenres().add(entry.getValue()))
+                .then();
+        Mono<Void> likes = databaseClient.sql(SELECT_LIKES_OF_FILMS)
+                .bind("ids", filmsById.keySet())
+                .map((row, metadata) -> new AbstractMap.SimpleEntry<>(getLong(row, "film_id"),
+                        getLong(row, "user_id")))
+                .all()
+                .doOnNext(entry -> filmsById.get(entry.getKey()).getLikes().add(entry.getValue()))
+                .then();
+        return genres.then(likes).thenMany(Flux.fromIterable(films));
+    }
+
+    private static Film mapFilm(Row row) {
+        return new Film(getLong(row, "film_id"),
+                row.get("name", String.class),
+                row.get("description", String.class),
+                row.get("releaseDate", LocalDate.class),
+                ((Number) row.get("duration")).intValue(),
+                new Mpa(getLong(row, "mpa_id"), row.get("mpa_name", String.class)));
+    }
+
+    private static long getLong(Row row, String name) {
+        Number value = (Number) row.get(name);
+        return value == null ? 0 : value.longValue();
+    }
+}
@@ -3,6 +3,7 @@ package ru.yandex.practicum.filmorate.storage.film;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,8 +11,20 @@ public interface FilmStorage {
 
     List<Film> getFilms();
 
+    List<Film> getFilmsWithDetails();
+
+    List<Film> findFilmsWithDetailsByIds(Collection<Long> filmIds);
+
+    List<Film> getFilmsWithDetailsPage(long afterId, int limit);
+
+    Optional<Film> findFilmWithDetailsById(long filmId);
+
+    List<Film> getPopularFilms(long count);
+
     Film addFilm(Film film);
 
+    List<Film> addFilms(List<Film> films);
+
     void putFilm(Film film);
 
     void deleteFilm(Film film);
@@ -20,6 +33,10 @@ public interface FilmStorage {
 
     void addGenreToFilm(long filmId, long genreId);
 
+    void addGenresToFilm(long filmId, Collection<Long> genreIds);
+
+    void replaceGenresFilm(long filmId, Collection<Long> genreIds);
+
     List<Genre> getGenreFilmById(long id);
 
     void removeGenreFilm(long filmId);
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.Film;
+
+public interface ReactiveFilmStorage {
+
+    Flux<Film> getFilmsWithDetails();
+
+    Mono<Film> findFilmWithDetailsById(long filmId);
+
+    Flux<Film> getPopularFilms(long count);
+}
@@ -1,7 +1,7 @@
 package ru.yandex.practicum.filmorate.storage.friendship;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
@@ -9,38 +9,56 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.ObjectNotFoundException;
 import ru.yandex.practicum.filmorate.model.Friendship;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static ru.yandex.practicum.filmorate.model.Mappers.FRIENDSHIP_MAPPER;
 
 @Slf4j
-@RequiredArgsConstructor
 @Repository("FriendshipDbStorage")
 public class FriendshipDbStorage implements FriendshipStorage {
 
     private final JdbcTemplate jdbcTemplate;
-    private static final String SELECT_SECOND_USER =
-            "SELECT SECOND_USER_ID FROM FRIENDSHIP WHERE FIRST_USER_ID = ? " +
-                    "UNION SELECT FIRST_USER_ID FROM FRIENDSHIP WHERE SECOND_USER_ID = ? AND STATUS = TRUE";
+    private final FriendshipGraph friendshipGraph;
+    private final int pathMaxDepth;
+    private final int pathMaxVisited;
     private static final String INSERT_INTO_FRIENDSHIP_FIRST_USER_ID_SECOND_USER_ID_VALUES =
             "INSERT INTO FRIENDSHIP (FIRST_USER_ID,  SECOND_USER_ID) VALUES (?, ?)";
     private static final String UPDATE_SET_STATUS =
-            "UPDATE FRIENDSHIP SET STATUS = ? WHERE FIRST_USER_ID = ? " +
-                    "and SECOND_USER_ID = ? OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+            "UPDATE FRIENDSHIP SET STATUS = ? WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
     private static final String SELECT_FROM_FRIENDSHIP =
-            "SELECT * FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
-                    "OR SECOND_USER_ID = ? AND FIRST_USER_ID = ?";
+            "SELECT * FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
     private static final String DELETE_FROM_FRIENDSHIP =
-            "DELETE FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
-                    "OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+            "DELETE FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
     private static final String SELECT_STATUS_FRIENDSHIP =
             "SELECT STATUS FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ? " +
-                    "OR FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+                    "UNION ALL SELECT STATUS FROM FRIENDSHIP WHERE FIRST_USER_ID = ? AND SECOND_USER_ID = ?";
+
+    public FriendshipDbStorage(JdbcTemplate jdbcTemplate,
+                               FriendshipGraph friendshipGraph,
+                               @Value("${filmorate.friendship.path.max-depth:6}") int pathMaxDepth,
+                               @Value("${filmorate.friendship.path.max-visited:200000}") int pathMaxVisited) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.friendshipGraph = friendshipGraph;
+        this.pathMaxDepth = pathMaxDepth;
+        this.pathMaxVisited = pathMaxVisited;
+    }
 
     @Override
     public List<Long> getAllById(long id) {
-        return jdbcTemplate.query(SELECT_SECOND_USER, (rs, rowNum) -> rs.getLong("SECOND_USER_ID"), id, id);
+        return toList(friendshipGraph.getFriends(id));
+    }
+
+    @Override
+    public List<Long> getCommonById(long id, long otherId) {
+        return toList(friendshipGraph.getCommonFriends(id, otherId));
+    }
+
+    @Override
+    public List<Long> findPath(long id, long otherId) {
+        return toList(friendshipGraph.findPath(id, otherId, pathMaxDepth, pathMaxVisited));
     }
 
     @Override
@@ -48,15 +66,27 @@ public class FriendshipDbStorage implements FriendshipStorage {
         jdbcTemplate.update(INSERT_INTO_FRIENDSHIP_FIRST_USER_ID_SECOND_USER_ID_VALUES,
                 friendship.getUserId(),
                 friendship.getFriendId());
+        friendshipGraph.addFriend(friendship.getUserId(), friendship.getFriendId());
+    }
+
+    @Override
+    public void addAll(List<Friendship> friendships) {
+        jdbcTemplate.batchUpdate(INSERT_INTO_FRIENDSHIP_FIRST_USER_ID_SECOND_USER_ID_VALUES, friendships,
+                friendships.size(), (stmt, friendship) -> {
+                    stmt.setLong(1, friendship.getUserId());
+                    stmt.setLong(2, friendship.getFriendId());
+                });
+        for (Friendship friendship : friendships) {
+            friendshipGraph.addFriend(friendship.getUserId(), friendship.getFriendId());
+        }
     }
 
     @Override
     public void put(Friendship friendship) {
-        jdbcTemplate.update(UPDATE_SET_STATUS, true,
-                friendship.getUserId(),
-                friendship.getFriendId(),
-                friendship.getFriendId(),
-                friendship.getUserId());
+        jdbcTemplate.batchUpdate(UPDATE_SET_STATUS, List.of(
+                new Object[]{true, friendship.getUserId(), friendship.getFriendId()},
+                new Object[]{true, friendship.getFriendId(), friendship.getUserId()}));
+        friendshipGraph.confirmFriendship(friendship.getUserId(), friendship.getFriendId());
     }
 
     @Override
@@ -64,9 +94,7 @@ public class FriendshipDbStorage implements FriendshipStorage {
         try {
             friendship = jdbcTemplate.queryForObject(SELECT_FROM_FRIENDSHIP, FRIENDSHIP_MAPPER,
                     friendship.getUserId(),
-                    friendship.getFriendId(),
-                    friendship.getFriendId(),
-                    friendship.getUserId());
+                    friendship.getFriendId());
             checkFriendship(friendship);
             return Optional.ofNullable(friendship);
         } catch (EmptyResultDataAccessException exception) {
@@ -79,11 +107,10 @@ public class FriendshipDbStorage implements FriendshipStorage {
 
     @Override
     public void delete(Friendship friendship) {
-        jdbcTemplate.update(DELETE_FROM_FRIENDSHIP,
-                friendship.getUserId(),
-                friendship.getFriendId(),
-                friendship.getFriendId(),
-                friendship.getUserId());
+        jdbcTemplate.batchUpdate(DELETE_FROM_FRIENDSHIP, List.of(
+                new Object[]{friendship.getUserId(), friendship.getFriendId()},
+                new Object[]{friendship.getFriendId(), friendship.getUserId()}));
+        friendshipGraph.removeFriendship(friendship.getUserId(), friendship.getFriendId());
     }
 
     @Override
@@ -100,6 +127,12 @@ public class FriendshipDbStorage implements FriendshipStorage {
         }
     }
 
+    private static List<Long> toList(long[] userIds) {
+        return Arrays.stream(userIds)
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
     public void checkFriendship(Friendship friendship) {
         if (friendship == null) {
             throw new ObjectNotFoundException("Друзья не найдены.");
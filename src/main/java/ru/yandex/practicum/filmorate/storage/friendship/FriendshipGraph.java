@@ -0,0 +1,496 @@
+package ru.yandex.practicum.filmorate.storage.friendship;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.Transactions;
+import ru.yandex.practicum.filmorate.util.LongLongMap;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FriendshipGraph {
+
+    private static final String SELECT_FRIENDSHIP_EDGES =
+            "SELECT FIRST_USER_ID, SECOND_USER_ID, STATUS FROM FRIENDSHIP";
+    private static final long[] NO_USERS = new long[0];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactionThreshold;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Long> changedAt = new HashMap<>();
+    private Adjacency friends = Adjacency.build(new EdgeBuffer());
+    private Adjacency friendOf = Adjacency.build(new EdgeBuffer());
+    private long version;
+    private long rebuiltAt;
+
+    public FriendshipGraph(JdbcTemplate jdbcTemplate,
+                           @Value("${filmorate.friendship.graph.compaction-threshold:4096}") int compactionThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        EdgeBuffer edges = new EdgeBuffer();
+        EdgeBuffer reverseEdges = new EdgeBuffer();
+        jdbcTemplate.query(SELECT_FRIENDSHIP_EDGES, (RowCallbackHandler) rs -> {
+            long firstUserId = rs.getLong("first_user_id");
+            long secondUserId = rs.getLong("second_user_id");
+            edges.add(firstUserId, secondUserId);
+            reverseEdges.add(secondUserId, firstUserId);
+            if (rs.getBoolean("status")) {
+                edges.add(secondUserId, firstUserId);
+                reverseEdges.add(firstUserId, secondUserId);
+            }
+        });
+        Adjacency builtFriends = Adjacency.build(edges);
+        Adjacency builtFriendOf = Adjacency.build(reverseEdges);
+        lock.writeLock().lock();
+        try {
+            friends = builtFriends;
+            friendOf = builtFriendOf;
+            changedAt.clear();
+            version++;
+            rebuiltAt = version;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Граф дружбы построен, пользователей со списком друзей: {}, связей: {}",
+                builtFriends.vertices.length, builtFriends.targets.length);
+    }
+
+    public long[] getFriends(long userId) {
+        lock.readLock().lock();
+        try {
+            return friends.copy(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getFriendOf(long userId) {
+        lock.readLock().lock();
+        try {
+            return friendOf.copy(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countFriends(long userId) {
+        lock.readLock().lock();
+        try {
+            return friends.range(userId).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isFriend(long userId, long friendId) {
+        lock.readLock().lock();
+        try {
+            return friends.range(userId).contains(friendId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getCommonFriends(long userId, long otherUserId) {
+        lock.readLock().lock();
+        try {
+            return Range.intersect(friends.range(userId), friends.range(otherUserId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] findPath(long fromUserId, long toUserId, int maxDepth, int maxVisited) {
+        if (fromUserId == toUserId) {
+            return new long[]{fromUserId};
+        }
+        lock.readLock().lock();
+        try {
+            Search forward = new Search(friends, fromUserId);
+            Search backward = new Search(friendOf, toUserId);
+            for (int depth = 0; depth < maxDepth; depth++) {
+                if (forward.frontier.size == 0 || backward.frontier.size == 0) {
+                    return NO_USERS;
+                }
+                boolean forwardIsSmaller = forward.frontier.size <= backward.frontier.size;
+                Search expanding = forwardIsSmaller ? forward : backward;
+                Search other = forwardIsSmaller ? backward : forward;
+                long meeting = expanding.expand(other, maxVisited - forward.visitedCount - backward.visitedCount);
+                if (meeting < 0) {
+                    log.info("Поиск цепочки друзей от {} до {} превысил лимит в {} пользователей",
+                            fromUserId, toUserId, maxVisited);
+                    return NO_USERS;
+                }
+                if (meeting > 0) {
+                    return join(forward, backward, meeting);
+                }
+            }
+            return NO_USERS;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isUnchangedSince(long seenVersion, long userId) {
+        lock.readLock().lock();
+        try {
+            if (seenVersion < rebuiltAt || changedAt.getOrDefault(userId, 0L) > seenVersion) {
+                return false;
+            }
+            Range range = friends.range(userId);
+            for (int i = range.from; i < range.to; i++) {
+                if (changedAt.getOrDefault(range.array[i], 0L) > seenVersion) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addFriend(long userId, long friendId) {
+        Transactions.afterCommit(() -> write(() -> link(userId, friendId)));
+    }
+
+    public void confirmFriendship(long userId, long friendId) {
+        Transactions.afterCommit(() -> write(() -> {
+            link(userId, friendId);
+            link(friendId, userId);
+        }));
+    }
+
+    public void removeFriendship(long userId, long friendId) {
+        Transactions.afterCommit(() -> write(() -> {
+            unlink(userId, friendId);
+            unlink(friendId, userId);
+        }));
+    }
+
+    public void removeUser(long userId) {
+        Transactions.afterCommit(() -> write(() -> {
+            for (long friendId : friends.copy(userId)) {
+                friendOf.remove(friendId, userId);
+            }
+            for (long followerId : friendOf.copy(userId)) {
+                friends.remove(followerId, userId);
+                touch(followerId);
+            }
+            friends.clear(userId);
+            touch(userId);
+            friendOf.clear(userId);
+        }));
+    }
+
+    private void link(long userId, long friendId) {
+        friends.add(userId, friendId);
+        friendOf.add(friendId, userId);
+        touch(userId);
+    }
+
+    private void unlink(long userId, long friendId) {
+        friends.remove(userId, friendId);
+        friendOf.remove(friendId, userId);
+        touch(userId);
+    }
+
+    private void touch(long userId) {
+        changedAt.put(userId, version + 1);
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            version++;
+            if (friends.delta.size() > compactionThreshold) {
+                friends = friends.compact();
+            }
+            if (friendOf.delta.size() > compactionThreshold) {
+                friendOf = friendOf.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long[] join(Search forward, Search backward, long meeting) {
+        LongBuffer path = new LongBuffer();
+        for (long userId = meeting; userId != 0; userId = forward.parents.get(userId)) {
+            path.add(userId);
+        }
+        path.reverse();
+        for (long userId = backward.parents.get(meeting); userId != 0; userId = backward.parents.get(userId)) {
+            path.add(userId);
+        }
+        return path.toArray();
+    }
+
+    private static final class Adjacency {
+
+        private final long[] vertices;
+        private final int[] offsets;
+        private final long[] targets;
+        private final Map<Long, long[]> delta = new HashMap<>();
+
+        private Adjacency(long[] vertices, int[] offsets, long[] targets) {
+            this.vertices = vertices;
+            this.offsets = offsets;
+            this.targets = targets;
+        }
+
+        private static Adjacency build(EdgeBuffer edges) {
+            long[] keys = edges.sortedDistinct();
+            int vertexCount = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (i == 0 || EdgeBuffer.from(keys[i]) != EdgeBuffer.from(keys[i - 1])) {
+                    vertexCount++;
+                }
+            }
+            long[] vertices = new long[vertexCount];
+            int[] offsets = new int[vertexCount + 1];
+            long[] targets = new long[keys.length];
+            int vertex = -1;
+            for (int i = 0; i < keys.length; i++) {
+                long from = EdgeBuffer.from(keys[i]);
+                if (vertex < 0 || vertices[vertex] != from) {
+                    vertex++;
+                    vertices[vertex] = from;
+                    offsets[vertex] = i;
+                }
+                targets[i] = EdgeBuffer.to(keys[i]);
+            }
+            offsets[vertexCount] = keys.length;
+            return new Adjacency(vertices, offsets, targets);
+        }
+
+        private Range range(long userId) {
+            long[] changed = delta.get(userId);
+            if (changed != null) {
+                return new Range(changed, 0, changed.length);
+            }
+            int index = Arrays.binarySearch(vertices, userId);
+            if (index < 0) {
+                return Range.EMPTY;
+            }
+            return new Range(targets, offsets[index], offsets[index + 1]);
+        }
+
+        private long[] copy(long userId) {
+            Range range = range(userId);
+            return Arrays.copyOfRange(range.array, range.from, range.to);
+        }
+
+        private void add(long userId, long friendId) {
+            Range range = range(userId);
+            int position = Arrays.binarySearch(range.array, range.from, range.to, friendId);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1 - range.from;
+            long[] changed = new long[range.size() + 1];
+            System.arraycopy(range.array, range.from, changed, 0, insertAt);
+            changed[insertAt] = friendId;
+            System.arraycopy(range.array, range.from + insertAt, changed, insertAt + 1, range.size() - insertAt);
+            delta.put(userId, changed);
+        }
+
+        private void remove(long userId, long friendId) {
+            Range range = range(userId);
+            int position = Arrays.binarySearch(range.array, range.from, range.to, friendId);
+            if (position < 0) {
+                return;
+            }
+            int removeAt = position - range.from;
+            long[] changed = new long[range.size() - 1];
+            System.arraycopy(range.array, range.from, changed, 0, removeAt);
+            System.arraycopy(range.array, position + 1, changed, removeAt, range.size() - removeAt - 1);
+            delta.put(userId, changed);
+        }
+
+        private void clear(long userId) {
+            delta.put(userId, NO_USERS);
+        }
+
+        private Adjacency compact() {
+            EdgeBuffer edges = new EdgeBuffer();
+            for (int i = 0; i < vertices.length; i++) {
+                if (!delta.containsKey(vertices[i])) {
+                    for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                        edges.add(vertices[i], targets[j]);
+                    }
+                }
+            }
+            delta.forEach((userId, friendIds) -> {
+                for (long friendId : friendIds) {
+                    edges.add(userId, friendId);
+                }
+            });
+            return build(edges);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static final class Range {
+
+        private static final Range EMPTY = new Range(NO_USERS, 0, 0);
+
+        private final long[] array;
+        private final int from;
+        private final int to;
+
+        private int size() {
+            return to - from;
+        }
+
+        private boolean contains(long userId) {
+            return Arrays.binarySearch(array, from, to, userId) >= 0;
+        }
+
+        private static long[] intersect(Range first, Range second) {
+            long[] common = new long[Math.min(first.size(), second.size())];
+            int count = 0;
+            int i = first.from;
+            int j = second.from;
+            while (i < first.to && j < second.to) {
+                long left = first.array[i];
+                long right = second.array[j];
+                if (left == right) {
+                    common[count++] = left;
+                    i++;
+                    j++;
+                } else if (left < right) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return count == common.length ? common : Arrays.copyOf(common, count);
+        }
+    }
+
+    private static final class EdgeBuffer {
+
+        private long[] keys = new long[64];
+        private int size;
+
+        private void add(long from, long to) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = from << 32 | to;
+        }
+
+        private long[] sortedDistinct() {
+            Arrays.sort(keys, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || keys[distinct - 1] != keys[i]) {
+                    keys[distinct++] = keys[i];
+                }
+            }
+            return Arrays.copyOf(keys, distinct);
+        }
+
+        private static long from(long key) {
+            return key >>> 32;
+        }
+
+        private static long to(long key) {
+            return key & 0xFFFFFFFFL;
+        }
+    }
+
+    private static final class Search {
+
+        private final Adjacency adjacency;
+        private final BitSet visited = new BitSet();
+        private final LongLongMap parents = new LongLongMap(64);
+        private LongBuffer frontier = new LongBuffer();
+        private int visitedCount;
+
+        private Search(Adjacency adjacency, long rootUserId) {
+            this.adjacency = adjacency;
+            visited.set(Math.toIntExact(rootUserId));
+            parents.put(rootUserId, 0);
+            frontier.add(rootUserId);
+            visitedCount = 1;
+        }
+
+        private long expand(Search other, int budget) {
+            LongBuffer next = new LongBuffer();
+            for (int i = 0; i < frontier.size; i++) {
+                long userId = frontier.ids[i];
+                Range range = adjacency.range(userId);
+                for (int j = range.from; j < range.to; j++) {
+                    long friendId = range.array[j];
+                    int index = Math.toIntExact(friendId);
+                    if (visited.get(index)) {
+                        continue;
+                    }
+                    if (--budget < 0) {
+                        return -1;
+                    }
+                    visited.set(index);
+                    parents.put(friendId, userId);
+                    visitedCount++;
+                    if (other.visited.get(index)) {
+                        return friendId;
+                    }
+                    next.add(friendId);
+                }
+            }
+            frontier = next;
+            return 0;
+        }
+    }
+
+    private static final class LongBuffer {
+
+        private long[] ids = new long[16];
+        private int size;
+
+        private void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void reverse() {
+            for (int i = 0, j = size - 1; i < j; i++, j--) {
+                long id = ids[i];
+                ids[i] = ids[j];
+                ids[j] = id;
+            }
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
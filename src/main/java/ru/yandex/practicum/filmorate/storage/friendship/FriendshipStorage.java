@@ -9,8 +9,14 @@ public interface FriendshipStorage {
 
     List<Long> getAllById(long id);
 
+    List<Long> getCommonById(long id, long otherId);
+
+    List<Long> findPath(long id, long otherId);
+
     void add(Friendship friendship);
 
+    void addAll(List<Friendship> friendships);
+
     void put(Friendship friendship);
 
     Optional<Friendship> findFriendship(Friendship friendship);
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage.genre;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.storage.ReferenceCache;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Primary
+@Repository("GenreCachedStorage")
+public class GenreCachedStorage implements GenreStorage {
+
+    private final GenreStorage genreStorage;
+    private final ReferenceCache<Genre> cache = new ReferenceCache<>(Genre::getId,
+            genre -> new Genre(genre.getId(), genre.getName()));
+
+    public GenreCachedStorage(@Qualifier("GenreStorage") GenreStorage genreStorage) {
+        this.genreStorage = genreStorage;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<Genre> genres = genreStorage.findAllGenres();
+        cache.load(genres);
+        log.info("Загружено жанров в кэш: {}", genres.size());
+    }
+
+    @Override
+    public Optional<Genre> findGenreById(long id) {
+        Genre genre = cache.get(id);
+        if (genre != null) {
+            return Optional.of(genre);
+        }
+        Optional<Genre> genreOptional = genreStorage.findGenreById(id);
+        genreOptional.ifPresent(cache::put);
+        return genreOptional;
+    }
+
+    @Override
+    public List<Genre> findAllGenres() {
+        List<Genre> genres = cache.getAll();
+        if (genres == null) {
+            genres = genreStorage.findAllGenres();
+            cache.load(genres);
+        }
+        return genres;
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        load();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+}
@@ -1,53 +1,145 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-
-import static ru.yandex.practicum.filmorate.model.Mappers.LIKE_MAPPER;
+import java.util.Map;
 
 @RequiredArgsConstructor
 @Repository("LikeStorage")
 public class LikeDbStorage implements LikeStorage {
 
     private final JdbcTemplate jdbcTemplate;
-    private static final String INSERT_INTO_LIKES_FILM_ID_USER_ID_VALUES =
-            "INSERT INTO LIKES(FILM_ID, USER_ID) VALUES (?, ?)";
+    private final FilmCache filmCache;
+    private final LikeIndex likeIndex;
+    private static final String INSERT_INTO_LIKES_IF_NOT_EXISTS =
+            "INSERT INTO LIKES (FILM_ID, USER_ID) SELECT CAST(? AS INTEGER), CAST(? AS INTEGER) " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM LIKES WHERE FILM_ID = ? AND USER_ID = ?)";
+    private static final String INSERT_INTO_LIKES =
+            "INSERT INTO LIKES (FILM_ID, USER_ID) VALUES (?, ?)";
     private static final String DELETE_FROM_LIKES_WHERE_FILM_ID_AND_USER_ID =
             "DELETE FROM LIKES WHERE (FILM_ID = ? AND USER_ID = ?)";
-    private static final String SELECT_USER_ID_FROM_LIKES_WHERE_FILM_ID =
-            "SELECT USER_ID FROM LIKES WHERE FILM_ID =?";
-    private static final String SELECT_FROM_LIKES_WHERE_FILM_ID_AND_USER_ID =
-            "SELECT * FROM LIKES WHERE FILM_ID = ? AND USER_ID = ?";
+    private static final String SELECT_LIKES_COUNT_GROUP_BY_FILM_ID =
+            "SELECT f.FILM_ID, COUNT(l.USER_ID) AS LIKES_COUNT FROM FILMS AS f " +
+                    "LEFT JOIN LIKES AS l ON f.FILM_ID = l.FILM_ID GROUP BY f.FILM_ID";
+    private static final String UPDATE_FILMS_INCREASE_LIKES_COUNT =
+            "UPDATE FILMS SET LIKES_COUNT = LIKES_COUNT + ? WHERE FILM_ID = ?";
 
     @Override
-    public void addLike(Long filmId, Long userId) {
-        jdbcTemplate.update(INSERT_INTO_LIKES_FILM_ID_USER_ID_VALUES, filmId, userId);
+    @Transactional
+    public boolean addLike(Long filmId, Long userId) {
+        int added;
+        try {
+            added = jdbcTemplate.update(INSERT_INTO_LIKES_IF_NOT_EXISTS, filmId, userId, filmId, userId);
+        } catch (DuplicateKeyException exception) {
+            return false;
+        }
+        if (added == 0) {
+            return false;
+        }
+        jdbcTemplate.update(UPDATE_FILMS_INCREASE_LIKES_COUNT, added, filmId);
+        filmCache.evict(filmId);
+        likeIndex.add(filmId, userId);
+        return true;
     }
 
     @Override
-    public void removeLike(Long filmId, Long userId) {
-        jdbcTemplate.update(DELETE_FROM_LIKES_WHERE_FILM_ID_AND_USER_ID, filmId, userId);
+    @Transactional
+    public void addLikes(List<Like> likes) {
+        jdbcTemplate.batchUpdate(INSERT_INTO_LIKES, likes, likes.size(), (stmt, like) -> {
+            stmt.setLong(1, like.getFilmId());
+            stmt.setLong(2, like.getUserId());
+        });
+        updateLikesCount(likes);
+    }
+
+    @Override
+    @Transactional
+    public List<Like> addLikesIfAbsent(List<Like> likes) {
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_INTO_LIKES_IF_NOT_EXISTS, likes, likes.size(),
+                (stmt, like) -> {
+                    stmt.setLong(1, like.getFilmId());
+                    stmt.setLong(2, like.getUserId());
+                    stmt.setLong(3, like.getFilmId());
+                    stmt.setLong(4, like.getUserId());
+                });
+        List<Like> added = new ArrayList<>(likes.size());
+        for (int i = 0; i < likes.size(); i++) {
+            if (inserted[0][i] != 0) {
+                added.add(likes.get(i));
+            }
+        }
+        if (!added.isEmpty()) {
+            updateLikesCount(added);
+        }
+        return added;
+    }
+
+    @Override
+    @Transactional
+    public boolean removeLike(Long filmId, Long userId) {
+        int removed = jdbcTemplate.update(DELETE_FROM_LIKES_WHERE_FILM_ID_AND_USER_ID, filmId, userId);
+        if (removed == 0) {
+            return false;
+        }
+        jdbcTemplate.update(UPDATE_FILMS_INCREASE_LIKES_COUNT, -removed, filmId);
+        filmCache.evict(filmId);
+        likeIndex.remove(filmId, userId);
+        return true;
     }
 
     @Override
     public List<Long> getLikeByIdFilm(Long filmId) {
-        return jdbcTemplate.query(SELECT_USER_ID_FROM_LIKES_WHERE_FILM_ID,
-                (rs, rowNum) -> rs.getLong("user_id"),
-                filmId);
+        return likeIndex.getUsersWhoLiked(filmId);
     }
 
     @Override
     public boolean isExist(Long filmId, Long userId) {
-        try {
-            jdbcTemplate.queryForObject(SELECT_FROM_LIKES_WHERE_FILM_ID_AND_USER_ID, LIKE_MAPPER, filmId, userId);
-            return true;
-        } catch (EmptyResultDataAccessException exception) {
-            return false;
+        return likeIndex.contains(filmId, userId);
+    }
+
+    @Override
+    public int countLikes(Long filmId) {
+        return likeIndex.countLikes(filmId);
+    }
+
+    @Override
+    public int countLikesAmong(Long filmId, Collection<Long> userIds) {
+        return likeIndex.countLikesAmong(filmId, userIds);
+    }
+
+    @Override
+    public List<Long> findFilmsLikedByBoth(Long userId, Long otherUserId) {
+        return likeIndex.findFilmsLikedByBoth(userId, otherUserId);
+    }
+
+    @Override
+    public Map<Long, Long> countLikesByFilm() {
+        Map<Long, Long> likesByFilm = new HashMap<>();
+        jdbcTemplate.query(SELECT_LIKES_COUNT_GROUP_BY_FILM_ID,
+                (RowCallbackHandler) rs -> likesByFilm.put(rs.getLong("film_id"), rs.getLong("likes_count")));
+        return likesByFilm;
+    }
+
+    private void updateLikesCount(List<Like> likes) {
+        Map<Long, Integer> addedByFilm = new HashMap<>();
+        for (Like like : likes) {
+            addedByFilm.merge(like.getFilmId(), 1, Integer::sum);
         }
+        List<Object[]> counts = new ArrayList<>(addedByFilm.size());
+        addedByFilm.forEach((filmId, added) -> counts.add(new Object[]{added, filmId}));
+        jdbcTemplate.batchUpdate(UPDATE_FILMS_INCREASE_LIKES_COUNT, counts);
+        addedByFilm.keySet().forEach(filmCache::evict);
+        likeIndex.addAll(likes);
     }
 }
-
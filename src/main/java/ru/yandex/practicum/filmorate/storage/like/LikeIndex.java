@@ -0,0 +1,225 @@
+package ru.yandex.practicum.filmorate.storage.like;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.storage.Transactions;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class LikeIndex {
+
+    private static final String SELECT_FILM_ID_USER_ID_FROM_LIKES = "SELECT FILM_ID, USER_ID FROM LIKES";
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, RoaringBitmap> usersByFilm = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> filmsByUser = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public LikeIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, RoaringBitmap> films = new HashMap<>();
+        Map<Integer, RoaringBitmap> users = new HashMap<>();
+        jdbcTemplate.query(SELECT_FILM_ID_USER_ID_FROM_LIKES, (RowCallbackHandler) rs -> {
+            int filmId = rs.getInt("film_id");
+            int userId = rs.getInt("user_id");
+            films.computeIfAbsent(filmId, id -> new RoaringBitmap()).add(userId);
+            users.computeIfAbsent(userId, id -> new RoaringBitmap()).add(filmId);
+        });
+        films.values().forEach(RoaringBitmap::runOptimize);
+        users.values().forEach(RoaringBitmap::runOptimize);
+        lock.writeLock().lock();
+        try {
+            usersByFilm.clear();
+            usersByFilm.putAll(films);
+            filmsByUser.clear();
+            filmsByUser.putAll(users);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс лайков построен, фильмов: {}, пользователей: {}", films.size(), users.size());
+    }
+
+    public void add(long filmId, long userId) {
+        Transactions.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                put(toInt(filmId), toInt(userId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void addAll(Collection<Like> likes) {
+        List<Like> added = new ArrayList<>(likes);
+        Transactions.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Like like : added) {
+                    put(toInt(like.getFilmId()), toInt(like.getUserId()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(long filmId, long userId) {
+        Transactions.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeFrom(usersByFilm, toInt(filmId), toInt(userId));
+                removeFrom(filmsByUser, toInt(userId), toInt(filmId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void removeFilm(long filmId) {
+        Transactions.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                RoaringBitmap users = usersByFilm.remove(toInt(filmId));
+                if (users != null) {
+                    for (int userId : users.toArray()) {
+                        removeFrom(filmsByUser, userId, toInt(filmId));
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public boolean contains(long filmId, long userId) {
+        lock.readLock().lock();
+        try {
+            return usersByFilm.getOrDefault(toInt(filmId), EMPTY).contains(toInt(userId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countLikes(long filmId) {
+        lock.readLock().lock();
+        try {
+            return usersByFilm.getOrDefault(toInt(filmId), EMPTY).getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countLikesAmong(long filmId, Collection<Long> userIds) {
+        RoaringBitmap users = new RoaringBitmap();
+        for (Long userId : userIds) {
+            users.add(toInt(userId));
+        }
+        lock.readLock().lock();
+        try {
+            return RoaringBitmap.andCardinality(usersByFilm.getOrDefault(toInt(filmId), EMPTY), users);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> findFilmsLikedByBoth(long userId, long otherUserId) {
+        int[] filmIds;
+        lock.readLock().lock();
+        try {
+            filmIds = RoaringBitmap.and(filmsByUser.getOrDefault(toInt(userId), EMPTY),
+                    filmsByUser.getOrDefault(toInt(otherUserId), EMPTY)).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> films = new ArrayList<>(filmIds.length);
+        for (int filmId : filmIds) {
+            films.add((long) filmId);
+        }
+        return films;
+    }
+
+    public List<Long> getUsersWhoLiked(long filmId) {
+        long[] userIds = getUserIds(filmId);
+        List<Long> users = new ArrayList<>(userIds.length);
+        for (long userId : userIds) {
+            users.add(userId);
+        }
+        return users;
+    }
+
+    public long[] getUserIds(long filmId) {
+        lock.readLock().lock();
+        try {
+            return toLongs(usersByFilm.getOrDefault(toInt(filmId), EMPTY).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getFilmIds(long userId) {
+        lock.readLock().lock();
+        try {
+            return toLongs(filmsByUser.getOrDefault(toInt(userId), EMPTY).toArray());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long[] getLikedFilmIds() {
+        lock.readLock().lock();
+        try {
+            return usersByFilm.keySet().stream()
+                    .mapToLong(Integer::longValue)
+                    .sorted()
+                    .toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(int filmId, int userId) {
+        usersByFilm.computeIfAbsent(filmId, id -> new RoaringBitmap()).add(userId);
+        filmsByUser.computeIfAbsent(userId, id -> new RoaringBitmap()).add(filmId);
+    }
+
+    private static void removeFrom(Map<Integer, RoaringBitmap> bitmaps, int key, int value) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(value);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static long[] toLongs(int[] ids) {
+        long[] longIds = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            longIds[i] = ids[i];
+        }
+        return longIds;
+    }
+
+    private static int toInt(long id) {
+        return Math.toIntExact(id);
+    }
+}
@@ -1,15 +1,31 @@
 package ru.yandex.practicum.filmorate.storage.like;
 
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface LikeStorage {
 
-    void addLike(Long filmId, Long userId);
+    boolean addLike(Long filmId, Long userId);
+
+    void addLikes(List<Like> likes);
 
-    void removeLike(Long filmId, Long userId);
+    List<Like> addLikesIfAbsent(List<Like> likes);
+
+    boolean removeLike(Long filmId, Long userId);
 
     List<Long> getLikeByIdFilm(Long filmId);
 
     boolean isExist(Long filmId, Long userId);
+
+    int countLikes(Long filmId);
+
+    int countLikesAmong(Long filmId, Collection<Long> userIds);
+
+    List<Long> findFilmsLikedByBoth(Long userId, Long otherUserId);
+
+    Map<Long, Long> countLikesByFilm();
 }
 
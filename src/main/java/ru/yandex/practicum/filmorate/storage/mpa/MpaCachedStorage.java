@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.storage.mpa;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.ReferenceCache;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Optional;
+
+@Slf4j
+@Primary
+@Repository("MpaCachedStorage")
+public class MpaCachedStorage implements MpaStorage {
+
+    private final MpaStorage mpaStorage;
+    private final ReferenceCache<Mpa> cache = new ReferenceCache<>(Mpa::getId,
+            mpa -> new Mpa(mpa.getId(), mpa.getName()));
+
+    public MpaCachedStorage(@Qualifier("MpaStorage") MpaStorage mpaStorage) {
+        this.mpaStorage = mpaStorage;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<Mpa> mpaList = mpaStorage.findAllMpa();
+        cache.load(mpaList);
+        log.info("Загружено рейтингов-МРА в кэш: {}", mpaList.size());
+    }
+
+    @Override
+    public Optional<Mpa> findMpaById(long id) {
+        Mpa mpa = cache.get(id);
+        if (mpa != null) {
+            return Optional.of(mpa);
+        }
+        Optional<Mpa> mpaOptional = mpaStorage.findMpaById(id);
+        mpaOptional.ifPresent(cache::put);
+        return mpaOptional;
+    }
+
+    @Override
+    public List<Mpa> findAllMpa() {
+        List<Mpa> mpaList = cache.getAll();
+        if (mpaList == null) {
+            mpaList = mpaStorage.findAllMpa();
+            cache.load(mpaList);
+        }
+        return mpaList;
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        load();
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+
+public interface ReactiveUserStorage {
+
+    Flux<User> getAllUsers();
+
+    Mono<User> findUserById(long userId);
+
+    Flux<User> findFriends(long userId);
+
+    Flux<User> findCommonFriends(long userId, long otherId);
+}
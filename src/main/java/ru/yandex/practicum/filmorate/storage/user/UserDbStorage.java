@@ -4,16 +4,25 @@ import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.exception.WorkApplicationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipGraph;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -24,6 +33,9 @@ import static ru.yandex.practicum.filmorate.model.Mappers.USER_MAPPER;
 public class UserDbStorage implements UserStorage {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final FriendshipGraph friendshipGraph;
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
     private static final String UPDATE_USERS_SET_EMAIL_NAME_LOGIN_BIRTHDAY_WHERE_USER_ID =
             "UPDATE USERS SET EMAIL = ?, NAME = ?, LOGIN = ?, BIRTHDAY = ? WHERE USER_ID = ?";
     private static final String DELETE_FROM_USERS_WHERE_USER_ID =
@@ -34,9 +46,17 @@ public class UserDbStorage implements UserStorage {
             "SELECT * FROM USERS";
     private static final String INSERT_INTO_USERS_EMAIL_NAME_LOGIN_BIRTHDAY_VALUES =
             "INSERT INTO USERS (email, name, login, birthday) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_FROM_USERS_PAGE =
+            "SELECT * FROM USERS WHERE USER_ID > ? ORDER BY USER_ID LIMIT ?";
+    private static final String SELECT_FROM_USERS_WHERE_USER_ID_IN =
+            "SELECT * FROM USERS WHERE USER_ID IN (:ids)";
 
-    public UserDbStorage(JdbcTemplate jdbcTemplate) {
+    public UserDbStorage(JdbcTemplate jdbcTemplate,
+                         NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                         FriendshipGraph friendshipGraph) {
         this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.friendshipGraph = friendshipGraph;
     }
 
     @Override
@@ -58,6 +78,17 @@ public class UserDbStorage implements UserStorage {
                 user.getBirthday());
     }
 
+    @Override
+    public void addUsers(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_INTO_USERS_EMAIL_NAME_LOGIN_BIRTHDAY_VALUES, users, users.size(),
+                (stmt, user) -> {
+                    stmt.setString(1, user.getEmail());
+                    stmt.setString(2, user.getName());
+                    stmt.setString(3, user.getLogin());
+                    stmt.setDate(4, Date.valueOf(user.getBirthday()));
+                });
+    }
+
     @Override
     public void putUser(User user) {
         jdbcTemplate.update(UPDATE_USERS_SET_EMAIL_NAME_LOGIN_BIRTHDAY_WHERE_USER_ID,
@@ -84,6 +115,7 @@ public class UserDbStorage implements UserStorage {
     @Override
     public void deleteUser(User user) {
         jdbcTemplate.update(DELETE_FROM_USERS_WHERE_USER_ID, user.getId());
+        friendshipGraph.removeUser(user.getId());
     }
 
     @Override
@@ -95,5 +127,32 @@ public class UserDbStorage implements UserStorage {
             return Collections.emptyList();
         }
     }
-}
 
+    @Override
+    public List<User> getUsersPage(long afterId, int limit) {
+        return jdbcTemplate.query(SELECT_FROM_USERS_PAGE, USER_MAPPER, afterId, limit);
+    }
+
+    @Override
+    public List<User> findUsersByIds(Collection<Long> ids) {
+        Map<Long, User> usersById = new HashMap<>();
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        for (int from = 0; from < uniqueIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = uniqueIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, uniqueIds.size()));
+            namedParameterJdbcTemplate.query(SELECT_FROM_USERS_WHERE_USER_ID_IN,
+                    new MapSqlParameterSource("ids", chunk),
+                    (RowCallbackHandler) rs -> {
+                        User user = USER_MAPPER.mapRow(rs, rs.getRow());
+                        usersById.put(Objects.requireNonNull(user).getId(), user);
+                    });
+        }
+        List<User> users = new ArrayList<>(usersById.size());
+        for (Long id : ids) {
+            User user = usersById.get(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+}
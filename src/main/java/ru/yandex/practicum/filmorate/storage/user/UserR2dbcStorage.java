@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+@RequiredArgsConstructor
+@Repository("UserR2dbcStorage")
+public class UserR2dbcStorage implements ReactiveUserStorage {
+
+    private static final String SELECT_FROM_USERS_ORDER_BY_USER_ID =
+            "SELECT * FROM USERS ORDER BY USER_ID";
+    private static final String SELECT_FROM_USERS_WHERE_USER_ID =
+            "SELECT * FROM USERS WHERE USER_ID = :id";
+    private static final String SELECT_FRIEND_IDS =
+            "SELECT SECOND_USER_ID AS FRIEND_ID FROM FRIENDSHIP WHERE FIRST_USER_ID = :id " +
+                    "UNION SELECT FIRST_USER_ID FROM FRIENDSHIP WHERE SECOND_USER_ID = :id AND STATUS = TRUE";
+    private static final String SELECT_OTHER_FRIEND_IDS =
+            "SELECT SECOND_USER_ID AS FRIEND_ID FROM FRIENDSHIP WHERE FIRST_USER_ID = :otherId " +
+                    "UNION SELECT FIRST_USER_ID FROM FRIENDSHIP WHERE SECOND_USER_ID = :otherId AND STATUS = TRUE";
+    private static final String SELECT_FRIENDS =
+            "SELECT u.* FROM USERS AS u " +
+                    "JOIN (" + SELECT_FRIEND_IDS + ") AS f ON u.USER_ID = f.FRIEND_ID " +
+                    "ORDER BY u.USER_ID";
+    private static final String SELECT_COMMON_FRIENDS =
+            "SELECT u.* FROM USERS AS u " +
+                    "JOIN (" + SELECT_FRIEND_IDS + ") AS f1 ON u.USER_ID = f1.FRIEND_ID " +
+                    "JOIN (" + SELECT_OTHER_FRIEND_IDS + ") AS f2 ON u.USER_ID = f2.FRIEND_ID " +
+                    "ORDER BY u.USER_ID";
+
+    private final DatabaseClient databaseClient;
+
+    @Override
+    public Flux<User> getAllUsers() {
+        return databaseClient.sql(SELECT_FROM_USERS_ORDER_BY_USER_ID)
+                .map((row, metadata) -> mapUser(row))
+                .all();
+    }
+
+    @Override
+    public Mono<User> findUserById(long userId) {
+        return databaseClient.sql(SELECT_FROM_USERS_WHERE_USER_ID)
+                .bind("id", userId)
+                .map((row, metadata) -> mapUser(row))
+                .one();
+    }
+
+    @Override
+    public Flux<User> findFriends(long userId) {
+        return databaseClient.sql(SELECT_FRIENDS)
+                .bind("id", userId)
+                .map((row, metadata) -> mapUser(row))
+                .all();
+    }
+
+    @Override
+    public Flux<User> findCommonFriends(long userId, long otherId) {
+        return databaseClient.sql(SELECT_COMMON_FRIENDS)
+                .bind("id", userId)
+                .bind("otherId", otherId)
+                .map((row, metadata) -> mapUser(row))
+                .all();
+    }
+
+    private static User mapUser(Row row) {
+        return new User(((Number) row.get("user_id")).longValue(),
+                row.get("email", String.class),
+                row.get("name", String.class),
+                row.get("login", String.class),
+                row.get("birthday", LocalDate.class));
+    }
+}
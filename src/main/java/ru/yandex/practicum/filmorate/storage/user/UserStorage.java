@@ -2,6 +2,7 @@ package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,4 +17,10 @@ public interface UserStorage {
     void deleteUser(User user);
 
     List<User> getAllUsers();
+
+    void addUsers(List<User> users);
+
+    List<User> getUsersPage(long afterId, int limit);
+
+    List<User> findUsersByIds(Collection<Long> ids);
 }
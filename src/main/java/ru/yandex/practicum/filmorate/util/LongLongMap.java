@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+public final class LongLongMap {
+
+    private static final int MAX_ID = Integer.MAX_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    public LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public void put(long key, long value) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+        } else {
+            insert(slot, key, value);
+        }
+    }
+
+    public void increment(long key) {
+        add(key, 1);
+    }
+
+    public void add(long key, long delta) {
+        int slot = slotOf(key);
+        if (keys[slot] == key) {
+            values[slot] += delta;
+        } else {
+            insert(slot, key, delta);
+        }
+    }
+
+    public long get(long key) {
+        int slot = slotOf(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long[] keys() {
+        long[] positive = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && values[slot] > 0) {
+                positive[count++] = keys[slot];
+            }
+        }
+        return Arrays.copyOf(positive, count);
+    }
+
+    public long[] topKeys(int limit) {
+        long[] ranked = new long[size];
+        int count = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0 && values[slot] > 0) {
+                ranked[count++] = Math.min(values[slot], MAX_ID) << 32 | (MAX_ID - keys[slot]);
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+        long[] top = new long[Math.min(limit, count)];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = MAX_ID - (ranked[count - 1 - i] & 0xFFFFFFFFL);
+        }
+        return top;
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ mixed >>> 32);
+    }
+}
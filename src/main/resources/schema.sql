@@ -11,7 +11,8 @@ CREATE TABLE IF NOT EXISTS films
     description VARCHAR(200) NOT NULL,
     releaseDate DATE         NOT NULL CHECK (releaseDate > '1895-09-28'),
     duration    INTEGER      NOT NULL CHECK (duration > 0),
-    mpa_id      INTEGER REFERENCES mpa (mpa_id) ON DELETE RESTRICT
+    mpa_id      INTEGER REFERENCES mpa (mpa_id) ON DELETE RESTRICT,
+    likes_count INTEGER      NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS genre
@@ -26,9 +27,35 @@ CREATE UNIQUE INDEX IF NOT EXISTS film_uindex
 CREATE TABLE IF NOT EXISTS films_genre
 (
     film_id  INTEGER REFERENCES films (film_id) ON DELETE CASCADE,
-    genre_id INTEGER REFERENCES genre (genre_id) ON DELETE RESTRICT
+    genre_id INTEGER REFERENCES genre (genre_id) ON DELETE RESTRICT,
+    CONSTRAINT films_genre_pk PRIMARY KEY (film_id, genre_id)
 );
 
+DELETE
+FROM films_genre
+WHERE film_id IS NULL
+   OR genre_id IS NULL;
+
+ALTER TABLE films_genre
+    ALTER COLUMN film_id SET NOT NULL;
+
+ALTER TABLE films_genre
+    ALTER COLUMN genre_id SET NOT NULL;
+
+DELETE
+FROM films_genre t
+WHERE EXISTS(SELECT 1
+             FROM films_genre d
+             WHERE d.film_id = t.film_id
+               AND d.genre_id = t.genre_id
+               AND d._ROWID_ < t._ROWID_);
+
+ALTER TABLE films_genre
+    ADD CONSTRAINT IF NOT EXISTS films_genre_pk PRIMARY KEY (film_id, genre_id);
+
+CREATE INDEX IF NOT EXISTS films_genre_genre_index
+    ON films_genre (genre_id, film_id);
+
 CREATE TABLE IF NOT EXISTS users
 (
     user_id  INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -42,9 +69,52 @@ CREATE TABLE IF NOT EXISTS users
 CREATE TABLE IF NOT EXISTS likes
 (
     film_id INTEGER REFERENCES films (film_id) ON DELETE CASCADE,
-    user_id INTEGER REFERENCES users (user_id) ON DELETE RESTRICT
+    user_id INTEGER REFERENCES users (user_id) ON DELETE RESTRICT,
+    CONSTRAINT likes_pk PRIMARY KEY (film_id, user_id)
 );
 
+DELETE
+FROM likes
+WHERE film_id IS NULL
+   OR user_id IS NULL;
+
+ALTER TABLE likes
+    ALTER COLUMN film_id SET NOT NULL;
+
+ALTER TABLE likes
+    ALTER COLUMN user_id SET NOT NULL;
+
+DELETE
+FROM likes t
+WHERE EXISTS(SELECT 1
+             FROM likes d
+             WHERE d.film_id = t.film_id
+               AND d.user_id = t.user_id
+               AND d._ROWID_ < t._ROWID_);
+
+ALTER TABLE likes
+    ADD CONSTRAINT IF NOT EXISTS likes_pk PRIMARY KEY (film_id, user_id);
+
+CREATE INDEX IF NOT EXISTS likes_user_index
+    ON likes (user_id, film_id);
+
+ALTER TABLE films
+    ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS schema_migrations
+(
+    name VARCHAR(100) PRIMARY KEY
+);
+
+UPDATE films f
+SET likes_count = (SELECT COUNT(*) FROM likes l WHERE l.film_id = f.film_id)
+WHERE NOT EXISTS(SELECT 1 FROM schema_migrations WHERE name = 'films_likes_count');
+
+MERGE INTO schema_migrations (name) KEY (name) VALUES ('films_likes_count');
+
+CREATE INDEX IF NOT EXISTS film_likes_count_index
+    ON films (likes_count DESC, film_id);
+
 CREATE UNIQUE INDEX IF NOT EXISTS user_uindex
     ON users (email, login);
 
@@ -52,5 +122,20 @@ CREATE TABLE IF NOT EXISTS friendship
 (
     first_user_id  INTEGER NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
     second_user_id INTEGER NOT NULL REFERENCES users (user_id) ON DELETE CASCADE,
-    status         BOOLEAN DEFAULT FALSE
-);
\ No newline at end of file
+    status         BOOLEAN DEFAULT FALSE,
+    CONSTRAINT friendship_pk PRIMARY KEY (first_user_id, second_user_id)
+);
+
+DELETE
+FROM friendship t
+WHERE EXISTS(SELECT 1
+             FROM friendship d
+             WHERE d.first_user_id = t.first_user_id
+               AND d.second_user_id = t.second_user_id
+               AND d._ROWID_ < t._ROWID_);
+
+ALTER TABLE friendship
+    ADD CONSTRAINT IF NOT EXISTS friendship_pk PRIMARY KEY (first_user_id, second_user_id);
+
+CREATE INDEX IF NOT EXISTS friendship_second_user_index
+    ON friendship (second_user_id, first_user_id);
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.config.ConnectionLimitingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class ConnectionLimitingIntegrationTest {
+
+    private final DataSource dataSource;
+
+    @Test
+    void shouldReleasePermitWhenConnectionIsClosed() throws Exception {
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, 2, Duration.ofSeconds(1));
+        Connection first = limited.getConnection();
+        Connection second = limited.getConnection();
+        assertThat(limited.getAvailablePermits()).isZero();
+        first.close();
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+        first.close();
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+        second.close();
+        assertThat(limited.getAvailablePermits()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldFailWhenNoPermitFreesUpInTime() throws Exception {
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, 1,
+                Duration.ofMillis(50));
+        try (Connection connection = limited.getConnection()) {
+            assertThat(connection.isValid(1)).isTrue();
+            assertThrows(SQLTransientConnectionException.class, limited::getConnection);
+        }
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+        assertThat(limited.getQueueLength()).isZero();
+    }
+
+    @Test
+    void shouldReleasePermitsAfterJdbcTemplateCalls() {
+        ConnectionLimitingDataSource limited = new ConnectionLimitingDataSource(dataSource, 1,
+                Duration.ofMillis(50));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(limited);
+        for (int i = 0; i < 3; i++) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM MPA", Integer.class)).isEqualTo(5);
+        }
+        assertThat(limited.getAvailablePermits()).isEqualTo(1);
+    }
+}
@@ -7,14 +7,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmBatchResponse;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.film.FilmCache;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.genre.GenreStorage;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +33,9 @@ import static org.junit.jupiter.api.Assertions.*;
 class FilmIntegrationTest {
 
     private final FilmStorage filmStorage;
+    private final FilmService filmService;
     private final GenreStorage genreStorage;
+    private final FilmCache filmCache;
     private final LocalDate correctReleaseDate = LocalDate.of(1895, Month.DECEMBER, 29);
     private final LocalDate notCorrectReleaseDate = LocalDate.of(1895, Month.DECEMBER, 27);
     private final String newFilmOneName = "Новое кино1";
@@ -170,7 +178,7 @@ class FilmIntegrationTest {
     void testGenreFilm() {
         Film filmTest = filmStorage.addFilm(filmOne);
         Genre genreOne = genreStorage.findGenreById(1L).get();
-        Genre genreTwo = genreStorage.findGenreById(1L).get();
+        Genre genreTwo = genreStorage.findGenreById(2L).get();
         filmStorage.addGenreToFilm(filmTest.getId(), genreOne.getId());
         filmStorage.addGenreToFilm(filmTest.getId(), genreTwo.getId());
         List<Genre> genreList = filmStorage.getGenreFilmById(filmTest.getId());
@@ -181,4 +189,120 @@ class FilmIntegrationTest {
         genreList = filmStorage.getGenreFilmById(filmTest.getId());
         assertTrue(genreList.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindFilmsWithDetails() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        Film filmTestTwo = filmStorage.addFilm(filmTwo);
+        filmStorage.addGenreToFilm(filmTest.getId(), 2L);
+        filmStorage.addGenreToFilm(filmTest.getId(), 1L);
+        List<Film> films = filmStorage.findFilmsWithDetailsByIds(List.of(filmTestTwo.getId(), filmTest.getId(), 0L));
+        assertThat(films).hasSize(2);
+        assertThat(films.get(0).getId()).isEqualTo(filmTestTwo.getId());
+        assertThat(films.get(0).getMpa().getName()).isEqualTo("NC-17");
+        assertThat(films.get(0).getGenres()).isEmpty();
+        assertThat(films.get(1).getMpa().getName()).isEqualTo("PG");
+        assertThat(films.get(1).getGenres()).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(filmStorage.getFilmsWithDetails()).hasSize(2);
+        assertThat(filmStorage.findFilmWithDetailsById(0L)).isNotPresent();
+    }
+
+    @Test
+    void shouldRefreshCachedFilmAfterUpdate() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        long id = filmTest.getId();
+        assertThat(filmStorage.findFilmWithDetailsById(id)).isPresent();
+        filmStorage.putFilm(new Film(id,
+                filmTwo.getName(),
+                filmTwo.getDescription(),
+                filmTwo.getReleaseDate(),
+                filmTwo.getDuration(),
+                filmTwo.getMpa()));
+        filmStorage.addGenreToFilm(id, 3L);
+        assertThat(filmStorage.findFilmWithDetailsById(id)).hasValueSatisfying(film -> {
+            assertThat(film.getName()).isEqualTo(filmTwo.getName());
+            assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(3L);
+        });
+    }
+
+    @Test
+    void shouldNotShareCachedFilmBetweenCallers() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        long id = filmTest.getId();
+        filmStorage.addGenreToFilm(id, 1L);
+        Film first = filmStorage.findFilmWithDetailsById(id).orElseThrow();
+        first.getLikes().add(100L);
+        first.getGenres().clear();
+        first.getMpa().setName("R");
+        Film second = filmStorage.findFilmWithDetailsById(id).orElseThrow();
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getLikes()).isEmpty();
+        assertThat(second.getGenres()).extracting(Genre::getId).containsExactly(1L);
+        assertThat(second.getMpa().getName()).isEqualTo("PG");
+        second.getGenres().clear();
+        assertThat(filmStorage.findFilmsWithDetailsByIds(List.of(id)).get(0).getGenres())
+                .extracting(Genre::getId).containsExactly(1L);
+    }
+
+    @Test
+    void shouldCancelOnlyLoadsOfEvictedFilm() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        Film filmOther = filmStorage.addFilm(filmTwo);
+        long version = filmCache.getVersion();
+        filmCache.evict(filmOther.getId());
+        filmCache.put(filmTest, version);
+        assertThat(filmCache.get(filmTest.getId())).isNotNull();
+        version = filmCache.getVersion();
+        filmCache.evict(filmOther.getId());
+        filmCache.put(filmOther, version);
+        assertThat(filmCache.get(filmOther.getId())).isNull();
+    }
+
+    @Test
+    void shouldReplaceOnlyChangedGenres() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        filmStorage.addGenresToFilm(filmTest.getId(), List.of(1L, 2L, 3L));
+        filmStorage.replaceGenresFilm(filmTest.getId(), List.of(3L, 4L, 4L));
+        assertThat(filmStorage.getGenreFilmById(filmTest.getId()))
+                .extracting(Genre::getId)
+                .containsExactly(3L, 4L);
+        filmStorage.replaceGenresFilm(filmTest.getId(), List.of());
+        assertTrue(filmStorage.getGenreFilmById(filmTest.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldFindFilmsBatchInRequestOrder() {
+        Film filmTest = filmStorage.addFilm(filmOne);
+        Film filmTestTwo = filmStorage.addFilm(filmTwo);
+        long missingId = filmTestTwo.getId() + 1000;
+        FilmBatchResponse response = filmService.findFilmsByIds(
+                List.of(filmTestTwo.getId(), missingId, filmTest.getId()));
+        assertThat(response.getFilms()).extracting(Film::getId)
+                .containsExactly(filmTestTwo.getId(), filmTest.getId());
+        assertThat(response.getMissing()).containsExactly(missingId);
+        FilmBatchResponse emptyResponse = filmService.findFilmsByIds(List.of());
+        assertThat(emptyResponse.getFilms()).isEmpty();
+        assertThat(emptyResponse.getMissing()).isEmpty();
+        assertThrows(ValidationException.class, () -> filmService.findFilmsByIds(null));
+        List<Long> tooManyIds = new ArrayList<>(Collections.nCopies(501, filmTest.getId()));
+        assertThrows(ValidationException.class, () -> filmService.findFilmsByIds(tooManyIds));
+    }
+
+    @Test
+    void shouldPageFilmsByKeyset() {
+        Film first = filmStorage.addFilm(new Film(null, "Страничное кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film second = filmStorage.addFilm(new Film(null, "Страничное кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(2L)));
+        filmStorage.replaceGenresFilm(second.getId(), List.of(1L, 2L));
+        assertThat(filmService.findFilmsPage(first.getId() - 1, 1))
+                .extracting(Film::getId)
+                .containsExactly(first.getId());
+        List<Film> secondPage = filmService.findFilmsPage(first.getId(), 10);
+        assertThat(secondPage).extracting(Film::getId).containsExactly(second.getId());
+        assertThat(secondPage.get(0).getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(filmService.findFilmsPage(second.getId(), 10)).isEmpty();
+        assertThrows(ValidationException.class, () -> filmService.findFilmsPage(0L, 0));
+        assertThrows(ValidationException.class, () -> filmService.findFilmsPage(-1L, 10));
+    }
+}
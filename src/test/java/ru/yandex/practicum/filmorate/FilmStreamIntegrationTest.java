@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class FilmStreamIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final ObjectMapper objectMapper;
+
+    @Test
+    void shouldStreamAllFilmsAsNdjson() throws Exception {
+        Film first = filmStorage.addFilm(new Film(null, "Потоковое кино1", "Описание",
+                LocalDate.of(2002, 5, 5), 100, new Mpa(1L)));
+        Film second = filmStorage.addFilm(new Film(null, "Потоковое кино2", "Описание",
+                LocalDate.of(2002, 5, 5), 100, new Mpa(2L)));
+        MvcResult started = mockMvc.perform(get("/films/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        List<Long> ids = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode film = objectMapper.readTree(line);
+            ids.add(film.get("id").asLong());
+        }
+        assertThat(ids).isSorted().contains(first.getId(), second.getId());
+        filmStorage.deleteFilm(first);
+        filmStorage.deleteFilm(second);
+    }
+}
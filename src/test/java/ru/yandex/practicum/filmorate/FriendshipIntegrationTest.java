@@ -7,8 +7,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.exception.ObjectNotFoundException;
 import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
@@ -18,6 +20,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
@@ -27,6 +30,7 @@ class FriendshipIntegrationTest {
 
     private final UserStorage userStorage;
     private final FriendshipStorage friendshipStorage;
+    private final UserService userService;
     private final LocalDate testBirthday = LocalDate.of(1982, 10, 9);
     private final User userOne = new User(null, "test@yandex.ru", "Lipatov Kirill", "lipatovKIR", testBirthday);
     private final User userTwo = new User(null, "tests@yandex.ru", "Yandex Kirill", "yandexKIR", testBirthday);
@@ -98,4 +102,79 @@ class FriendshipIntegrationTest {
         friendshipStorage.delete(friendship);
         assertThat(friendshipStorage.findFriendship(friendship)).isNotPresent();
     }
+
+    @Test
+    void shouldFindFriendsInBulkAndCommonFriends() {
+        User userDbOne = userStorage.addUser(userOne);
+        User userDbTwo = userStorage.addUser(userTwo);
+        User userDbThree = userStorage.addUser(userThree);
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbThree.getId()));
+        friendshipStorage.add(new Friendship(userDbTwo.getId(), userDbThree.getId()));
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbTwo.getId()));
+        List<User> users = userStorage.findUsersByIds(List.of(userDbThree.getId(), userDbOne.getId(), -1L));
+        assertThat(users).extracting(User::getId).containsExactly(userDbThree.getId(), userDbOne.getId());
+        assertThat(friendshipStorage.getCommonById(userDbOne.getId(), userDbTwo.getId()))
+                .containsExactly(userDbThree.getId());
+        assertTrue(friendshipStorage.getCommonById(userDbOne.getId(), userDbThree.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldKeepFriendshipGraphInSyncWithTable() {
+        User userDbOne = userStorage.addUser(userOne);
+        User userDbTwo = userStorage.addUser(userTwo);
+        User userDbThree = userStorage.addUser(userThree);
+        Friendship request = new Friendship(userDbOne.getId(), userDbTwo.getId());
+        friendshipStorage.add(request);
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbThree.getId()));
+        friendshipStorage.add(new Friendship(userDbThree.getId(), userDbTwo.getId()));
+        assertThat(friendshipStorage.getAllById(userDbTwo.getId())).isEmpty();
+        friendshipStorage.put(request);
+        assertThat(friendshipStorage.getAllById(userDbTwo.getId())).containsExactly(userDbOne.getId());
+        assertThat(friendshipStorage.getCommonById(userDbOne.getId(), userDbThree.getId()))
+                .containsExactly(userDbTwo.getId());
+        userStorage.deleteUser(userDbTwo);
+        assertThat(friendshipStorage.getAllById(userDbOne.getId())).containsExactly(userDbThree.getId());
+        assertTrue(friendshipStorage.getCommonById(userDbOne.getId(), userDbThree.getId()).isEmpty());
+    }
+
+    @Test
+    void shouldSuggestFriendsOfFriendsByCommonFriends() {
+        User userDbOne = userStorage.addUser(userOne);
+        User userDbTwo = userStorage.addUser(userTwo);
+        User userDbThree = userStorage.addUser(userThree);
+        User userDbFour = userStorage.addUser(new User(null, "four@mail.ru", "Four", "fourKir", testBirthday));
+        User userDbFive = userStorage.addUser(new User(null, "five@mail.ru", "Five", "fiveKir", testBirthday));
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbTwo.getId()));
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbThree.getId()));
+        friendshipStorage.add(new Friendship(userDbTwo.getId(), userDbFour.getId()));
+        friendshipStorage.add(new Friendship(userDbThree.getId(), userDbFour.getId()));
+        friendshipStorage.add(new Friendship(userDbThree.getId(), userDbFive.getId()));
+        String id = userDbOne.getId().toString();
+        assertThat(userService.suggestFriends(id, null))
+                .extracting(User::getId)
+                .containsExactly(userDbFour.getId(), userDbFive.getId());
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbFour.getId()));
+        assertThat(userService.suggestFriends(id, 10))
+                .extracting(User::getId)
+                .containsExactly(userDbFive.getId());
+    }
+
+    @Test
+    void shouldFindShortestFriendshipPath() {
+        User userDbOne = userStorage.addUser(userOne);
+        User userDbTwo = userStorage.addUser(userTwo);
+        User userDbThree = userStorage.addUser(userThree);
+        User userDbFour = userStorage.addUser(new User(null, "path@mail.ru", "Path", "pathKir", testBirthday));
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbTwo.getId()));
+        friendshipStorage.add(new Friendship(userDbTwo.getId(), userDbThree.getId()));
+        friendshipStorage.add(new Friendship(userDbThree.getId(), userDbFour.getId()));
+        assertThat(userService.findFriendshipPath(userDbOne.getId().toString(), userDbFour.getId().toString()))
+                .extracting(User::getId)
+                .containsExactly(userDbOne.getId(), userDbTwo.getId(), userDbThree.getId(), userDbFour.getId());
+        friendshipStorage.add(new Friendship(userDbOne.getId(), userDbThree.getId()));
+        assertThat(friendshipStorage.findPath(userDbOne.getId(), userDbFour.getId()))
+                .containsExactly(userDbOne.getId(), userDbThree.getId(), userDbFour.getId());
+        assertThrows(ObjectNotFoundException.class,
+                () -> userService.findFriendshipPath(userDbFour.getId().toString(), userDbOne.getId().toString()));
+    }
 }
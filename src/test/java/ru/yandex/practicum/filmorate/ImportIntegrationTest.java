@@ -0,0 +1,173 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.ImportReport;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FilmSimilarity;
+import ru.yandex.practicum.filmorate.service.ImportService;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class ImportIntegrationTest {
+
+    private final ImportService importService;
+    private final UserStorage userStorage;
+    private final FilmStorage filmStorage;
+    private final FilmService filmService;
+    private final LikeStorage likeStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmSimilarity filmSimilarity;
+    private final JdbcTemplate jdbcTemplate;
+    private final LocalDate testBirthday = LocalDate.of(1982, 10, 9);
+
+    @AfterEach
+    void afterEach() {
+        for (Film film : filmStorage.getFilms()) {
+            filmStorage.deleteFilm(film);
+        }
+        for (User user : userStorage.getAllUsers()) {
+            userStorage.deleteUser(user);
+        }
+    }
+
+    @Test
+    void shouldImportUsersCsvAndReportInvalidRows() throws IOException {
+        String csv = "email,login,name,birthday\n"
+                + "first@yandex.ru,first,\"First, User\",1990-01-01\n"
+                + "second@yandex.ru,second,,1991-02-02\n"
+                + "broken-email,third,Third,1992-03-03\n";
+        ImportReport report = importService.importCsv("users", body(csv));
+        assertThat(report.getReceived()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting("line").containsExactly(4L);
+        assertThat(userStorage.getAllUsers().stream()
+                .filter(user -> List.of("first@yandex.ru", "second@yandex.ru").contains(user.getEmail())))
+                .extracting(User::getName)
+                .containsExactlyInAnyOrder("First, User", "second");
+    }
+
+    @Test
+    void shouldImportFilmsNdjsonWithGenresAndRejectDuplicateNames() throws IOException {
+        Film existing = filmStorage.addFilm(new Film(null, "Импортное кино", "Уже в базе",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        String ndjson = "{\"name\":\"Импорт один\",\"description\":\"Первое\",\"releaseDate\":\"2001-01-01\","
+                + "\"duration\":90,\"mpa\":{\"id\":1},\"genres\":[{\"id\":1}]}\n"
+                + "{\"name\":\"Импорт два\",\"description\":\"Второе\",\"releaseDate\":\"2002-02-02\","
+                + "\"duration\":95,\"mpa\":{\"id\":2},\"genres\":[{\"id\":2},{\"id\":3}]}\n"
+                + "{\"name\":\"Импортное кино\",\"description\":\"Повтор\",\"releaseDate\":\"2003-03-03\","
+                + "\"duration\":80,\"mpa\":{\"id\":1},\"genres\":[{\"id\":4}]}\n"
+                + "{\"name\":\"Без рейтинга\",\"description\":\"Ошибка\",\"releaseDate\":\"2004-04-04\","
+                + "\"duration\":80,\"mpa\":{\"id\":99}}\n";
+        ImportReport report = importService.importNdjson("films", body(ndjson));
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("line").containsExactlyInAnyOrder(3L, 4L);
+        Map<String, Film> filmsByName = filmStorage.getFilmsWithDetails().stream()
+                .collect(Collectors.toMap(Film::getName, film -> film));
+        assertThat(filmsByName).doesNotContainKey("Без рейтинга");
+        assertThat(genreIds(filmsByName.get("Импорт один"))).containsExactly(1L);
+        assertThat(genreIds(filmsByName.get("Импорт два"))).containsExactly(2L, 3L);
+        assertThat(filmsByName.get("Импорт два").getMpa().getId()).isEqualTo(2L);
+        assertThat(filmsByName.get("Импортное кино").getId()).isEqualTo(existing.getId());
+        assertThat(genreIds(filmsByName.get("Импортное кино"))).isEmpty();
+    }
+
+    @Test
+    void shouldImportLikesRowByRowWhenChunkIsRejected() throws IOException, InterruptedException {
+        Film filmMore = filmService.createFilm(new Film(null, "Кино с лайками1", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        Film filmLess = filmService.createFilm(new Film(null, "Кино с лайками2", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        User userOne = userStorage.addUser(new User(null, "import1@yandex.ru", "Import", "import1KIR",
+                testBirthday));
+        User userTwo = userStorage.addUser(new User(null, "import2@yandex.ru", "Import", "import2KIR",
+                testBirthday));
+        long missingFilmId = filmLess.getId() + 1000;
+        String csv = "filmId,userId\n"
+                + filmMore.getId() + "," + userOne.getId() + "\n"
+                + filmMore.getId() + "," + userTwo.getId() + "\n"
+                + missingFilmId + "," + userOne.getId() + "\n"
+                + filmLess.getId() + "," + userOne.getId() + "\n";
+        ImportReport report = importService.importCsv("likes", body(csv));
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting("line").containsExactly(4L);
+        assertThat(likeStorage.getLikeByIdFilm(filmMore.getId()))
+                .containsExactlyInAnyOrder(userOne.getId(), userTwo.getId());
+        assertThat(likesCount(filmMore.getId())).isEqualTo(2);
+        assertThat(likesCount(filmLess.getId())).isEqualTo(1);
+        assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKeys(filmMore.getId(), filmLess.getId());
+        assertThat(filmLeaderboard.getTopFilmIds(Long.MAX_VALUE))
+                .containsSubsequence(filmMore.getId(), filmLess.getId());
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (filmSimilarity.findSimilar(filmMore.getId(), 10).length == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(filmSimilarity.findSimilar(filmMore.getId(), 10)).containsExactly(filmLess.getId());
+        assertThat(filmSimilarity.findSimilar(filmLess.getId(), 10)).containsExactly(filmMore.getId());
+    }
+
+    @Test
+    void shouldImportFriendshipsNdjson() throws IOException {
+        User user = userStorage.addUser(new User(null, "import3@yandex.ru", "Import", "import3KIR", testBirthday));
+        User friend = userStorage.addUser(new User(null, "import4@yandex.ru", "Import", "import4KIR",
+                testBirthday));
+        User other = userStorage.addUser(new User(null, "import5@yandex.ru", "Import", "import5KIR", testBirthday));
+        String ndjson = "{\"userId\":" + user.getId() + ",\"friendId\":" + friend.getId() + "}\n"
+                + "{\"userId\":" + user.getId() + ",\"friendId\":" + other.getId() + "}\n"
+                + "{\"userId\":" + user.getId() + ",\"friendId\":" + user.getId() + "}\n"
+                + "not json\n";
+        ImportReport report = importService.importNdjson("friendships", body(ndjson));
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting("line").containsExactly(3L, 4L);
+        assertThat(friendshipStorage.getAllById(user.getId()))
+                .containsExactlyInAnyOrder(friend.getId(), other.getId());
+    }
+
+    @Test
+    void shouldRejectUnknownImportType() {
+        assertThrows(ValidationException.class, () -> importService.importNdjson("reviews", body("{}")));
+    }
+
+    private static List<Long> genreIds(Film film) {
+        return film.getGenres().stream().map(Genre::getId).collect(Collectors.toList());
+    }
+
+    private long likesCount(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = ?", Long.class, filmId);
+    }
+
+    private static InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -6,19 +6,34 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.Mpa;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FilmSimilarity;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
 import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @AutoConfigureTestDatabase
@@ -28,6 +43,11 @@ class LikeIntegrationTest {
     private final LikeStorage likeStorage;
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final FilmService filmService;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmSimilarity filmSimilarity;
+    private final FriendshipStorage friendshipStorage;
+    private final TransactionTemplate transactionTemplate;
     private final LocalDate testBirthday = LocalDate.of(1982, 10, 9);
     private final LocalDate correctReleaseDate = LocalDate.of(1895, Month.DECEMBER, 29);
     private final Film filmOne = new Film(null,
@@ -70,4 +90,284 @@ class LikeIntegrationTest {
         assertFalse(afterDellikeList.contains(userTest.getId()));
         assertThat(afterDellikeList.get(0)).isEqualTo(userTestTwo.getId());
     }
+
+    @Test
+    void shouldSortPopularFilmsByLikesCount() {
+        Film filmLess = filmStorage.addFilm(new Film(null, "Популярное кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmMore = filmStorage.addFilm(new Film(null, "Популярное кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "popular@yandex.ru", "Popular", "popularKIR",
+                testBirthday));
+        User userTestTwo = userStorage.addUser(new User(null, "popular2@yandex.ru", "Popular", "popular2KIR",
+                testBirthday));
+        likeStorage.addLike(filmLess.getId(), userTest.getId());
+        likeStorage.addLike(filmMore.getId(), userTest.getId());
+        likeStorage.addLike(filmMore.getId(), userTestTwo.getId());
+        assertThat(filmStorage.getPopularFilms(Integer.MAX_VALUE))
+                .extracting(Film::getId)
+                .filteredOn(id -> id.equals(filmLess.getId()) || id.equals(filmMore.getId()))
+                .containsExactly(filmMore.getId(), filmLess.getId());
+        likeStorage.removeLike(filmMore.getId(), userTest.getId());
+        likeStorage.removeLike(filmMore.getId(), userTestTwo.getId());
+        assertThat(filmStorage.getPopularFilms(Integer.MAX_VALUE))
+                .extracting(Film::getId)
+                .filteredOn(id -> id.equals(filmLess.getId()) || id.equals(filmMore.getId()))
+                .containsExactly(filmLess.getId(), filmMore.getId());
+        filmStorage.deleteFilm(filmLess);
+        filmStorage.deleteFilm(filmMore);
+        userStorage.deleteUser(userTest);
+        userStorage.deleteUser(userTestTwo);
+    }
+
+    @Test
+    void shouldKeepLeaderboardConsistentWithLikes() {
+        filmLeaderboard.rebuild();
+        Film filmLess = filmService.createFilm(new Film(null, "Рейтинговое кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmMore = filmService.createFilm(new Film(null, "Рейтинговое кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "leader@yandex.ru", "Leader", "leaderKIR",
+                testBirthday));
+        filmService.addLikeFilm(filmMore.getId().toString(), userTest.getId().toString());
+        assertThat(filmLeaderboard.getTopFilmIds(Integer.MAX_VALUE))
+                .filteredOn(id -> id.equals(filmLess.getId()) || id.equals(filmMore.getId()))
+                .containsExactly(filmMore.getId(), filmLess.getId());
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+        filmService.removeLikeFilm(filmMore.getId().toString(), userTest.getId().toString());
+        filmService.deleteFilm(filmLess);
+        assertThat(filmLeaderboard.getTopFilmIds(Integer.MAX_VALUE))
+                .doesNotContain(filmLess.getId())
+                .contains(filmMore.getId());
+        assertThat(filmLeaderboard.findInconsistencies()).isEmpty();
+        filmService.deleteFilm(filmMore);
+        userStorage.deleteUser(userTest);
+    }
+
+    @Test
+    void shouldNotRankFilmCreatedInRolledBackTransaction() {
+        Film film = transactionTemplate.execute(status -> {
+            Film created = filmService.createFilm(new Film(null, "Откатанное кино", "Описание",
+                    correctReleaseDate, 100, new Mpa(1L)));
+            status.setRollbackOnly();
+            return created;
+        });
+        assertThat(filmStorage.findFilmById(film.getId())).isEmpty();
+        assertThat(filmLeaderboard.getTopFilmIds(Integer.MAX_VALUE)).doesNotContain(film.getId());
+        assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKey(film.getId());
+    }
+
+    @Test
+    void shouldIgnoreDuplicateLike() {
+        Film film = filmStorage.addFilm(new Film(null, "Повторный лайк", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "duplicate@yandex.ru", "Duplicate", "duplicateKIR",
+                testBirthday));
+        assertTrue(likeStorage.addLike(film.getId(), userTest.getId()));
+        assertFalse(likeStorage.addLike(film.getId(), userTest.getId()));
+        assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(userTest.getId());
+        assertTrue(likeStorage.removeLike(film.getId(), userTest.getId()));
+        assertFalse(likeStorage.removeLike(film.getId(), userTest.getId()));
+        filmStorage.deleteFilm(film);
+        userStorage.deleteUser(userTest);
+    }
+
+    @Test
+    void shouldFindCommonFilmsFromLikeIndex() {
+        Film filmCommon = filmStorage.addFilm(new Film(null, "Общее кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmOther = filmStorage.addFilm(new Film(null, "Общее кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "common@yandex.ru", "Common", "commonKIR",
+                testBirthday));
+        User userTestTwo = userStorage.addUser(new User(null, "common2@yandex.ru", "Common", "common2KIR",
+                testBirthday));
+        likeStorage.addLike(filmCommon.getId(), userTest.getId());
+        likeStorage.addLike(filmCommon.getId(), userTestTwo.getId());
+        likeStorage.addLike(filmOther.getId(), userTest.getId());
+        assertThat(likeStorage.countLikes(filmCommon.getId())).isEqualTo(2);
+        assertThat(likeStorage.countLikesAmong(filmOther.getId(), List.of(userTest.getId(), userTestTwo.getId())))
+                .isEqualTo(1);
+        assertThat(filmService.findCommonFilms(userTest.getId().toString(), userTestTwo.getId().toString()))
+                .extracting(Film::getId)
+                .containsExactly(filmCommon.getId());
+        filmStorage.deleteFilm(filmCommon);
+        filmStorage.deleteFilm(filmOther);
+        assertFalse(likeStorage.isExist(filmOther.getId(), userTest.getId()));
+        userStorage.deleteUser(userTest);
+        userStorage.deleteUser(userTestTwo);
+    }
+
+    @Test
+    void shouldFindSimilarFilmsByCoLikes() {
+        Film filmSource = filmService.createFilm(new Film(null, "Похожее кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmClose = filmService.createFilm(new Film(null, "Похожее кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmFar = filmService.createFilm(new Film(null, "Похожее кино3", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "similar@yandex.ru", "Similar", "similarKIR",
+                testBirthday));
+        User userTestTwo = userStorage.addUser(new User(null, "similar2@yandex.ru", "Similar", "similar2KIR",
+                testBirthday));
+        likeStorage.addLike(filmSource.getId(), userTest.getId());
+        likeStorage.addLike(filmClose.getId(), userTest.getId());
+        likeStorage.addLike(filmSource.getId(), userTestTwo.getId());
+        likeStorage.addLike(filmClose.getId(), userTestTwo.getId());
+        likeStorage.addLike(filmFar.getId(), userTestTwo.getId());
+        filmSimilarity.rebuild();
+        assertThat(filmService.findSimilarFilms(filmSource.getId().toString(), 10))
+                .extracting(Film::getId)
+                .containsExactly(filmClose.getId(), filmFar.getId());
+        filmService.removeLikeFilm(filmFar.getId().toString(), userTestTwo.getId().toString());
+        assertThat(filmService.findSimilarFilms(filmSource.getId().toString(), 10))
+                .extracting(Film::getId)
+                .containsExactly(filmClose.getId());
+        filmService.deleteFilm(filmClose);
+        assertThat(filmService.findSimilarFilms(filmSource.getId().toString(), 10)).isEmpty();
+        filmService.deleteFilm(filmSource);
+        filmService.deleteFilm(filmFar);
+        userStorage.deleteUser(userTest);
+        userStorage.deleteUser(userTestTwo);
+    }
+
+    @Test
+    void shouldKeepSimilarFilmsConsistentWhenLikesChangeDuringRebuild() throws InterruptedException {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            films.add(filmService.createFilm(new Film(null, "Совместное кино" + i, "Описание",
+                    correctReleaseDate, 100, new Mpa(1L))));
+        }
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(userStorage.addUser(new User(null, "colike" + i + "@yandex.ru", "CoLike", "colike" + i + "KIR",
+                    testBirthday)));
+        }
+        AtomicBoolean liking = new AtomicBoolean(true);
+        Thread rebuilder = new Thread(() -> {
+            while (liking.get()) {
+                filmSimilarity.rebuild();
+            }
+        });
+        rebuilder.start();
+        Random random = new Random(42);
+        Set<String> liked = new HashSet<>();
+        for (int i = 0; i < 800; i++) {
+            String filmId = films.get(random.nextInt(films.size())).getId().toString();
+            String userId = users.get(random.nextInt(users.size())).getId().toString();
+            if (liked.add(filmId + ":" + userId)) {
+                filmService.addLikeFilm(filmId, userId);
+            } else {
+                filmService.removeLikeFilm(filmId, userId);
+                liked.remove(filmId + ":" + userId);
+            }
+        }
+        liking.set(false);
+        rebuilder.join();
+        Map<Long, long[]> incremental = new HashMap<>();
+        for (Film film : films) {
+            incremental.put(film.getId(), filmSimilarity.findSimilar(film.getId(), 50));
+        }
+        filmSimilarity.rebuild();
+        for (Film film : films) {
+            assertThat(incremental.get(film.getId()))
+                    .as("Похожие на фильм %d", film.getId())
+                    .containsExactly(filmSimilarity.findSimilar(film.getId(), 50));
+        }
+        films.forEach(filmService::deleteFilm);
+        users.forEach(userStorage::deleteUser);
+    }
+
+    @Test
+    void shouldCountCoLikeOnceWhenOneUserLikesFilmsConcurrently() throws InterruptedException {
+        Film filmSource = filmService.createFilm(new Film(null, "Параллельное кино1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmRaced = filmService.createFilm(new Film(null, "Параллельное кино2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmKnown = filmService.createFilm(new Film(null, "Параллельное кино3", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(userStorage.addUser(new User(null, "parallel" + i + "@yandex.ru", "Parallel",
+                    "parallel" + i + "KIR", testBirthday)));
+        }
+        for (User user : users.subList(0, 2)) {
+            likeStorage.addLike(filmSource.getId(), user.getId());
+            likeStorage.addLike(filmKnown.getId(), user.getId());
+        }
+        filmSimilarity.rebuild();
+        long userId = users.get(2).getId();
+        long sourceVersion = filmSimilarity.getVersion(userId);
+        long racedVersion = filmSimilarity.getVersion(userId);
+        likeStorage.addLike(filmSource.getId(), userId);
+        likeStorage.addLike(filmRaced.getId(), userId);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread sourceLike = new Thread(() -> {
+            awaitQuietly(start);
+            filmSimilarity.likeAdded(filmSource.getId(), userId, sourceVersion);
+        });
+        Thread racedLike = new Thread(() -> {
+            awaitQuietly(start);
+            filmSimilarity.likeAdded(filmRaced.getId(), userId, racedVersion);
+        });
+        sourceLike.start();
+        racedLike.start();
+        start.countDown();
+        sourceLike.join();
+        racedLike.join();
+
+        assertThat(filmSimilarity.findSimilar(filmSource.getId(), 10))
+                .containsExactly(filmKnown.getId(), filmRaced.getId());
+        assertThat(filmSimilarity.findSimilar(filmRaced.getId(), 10)).containsExactly(filmSource.getId());
+        filmSimilarity.rebuild();
+        assertThat(filmSimilarity.findSimilar(filmSource.getId(), 10))
+                .containsExactly(filmKnown.getId(), filmRaced.getId());
+        for (Film film : List.of(filmSource, filmRaced, filmKnown)) {
+            filmService.deleteFilm(film);
+        }
+        users.forEach(userStorage::deleteUser);
+    }
+
+    @Test
+    void shouldRankFilmsPopularWithFriends() {
+        Film filmLess = filmStorage.addFilm(new Film(null, "Кино друзей1", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        Film filmMore = filmStorage.addFilm(new Film(null, "Кино друзей2", "Описание",
+                correctReleaseDate, 100, new Mpa(1L)));
+        User userTest = userStorage.addUser(new User(null, "friends@yandex.ru", "Friends", "friendsKIR",
+                testBirthday));
+        User friendOne = userStorage.addUser(new User(null, "friends2@yandex.ru", "Friends", "friends2KIR",
+                testBirthday));
+        User friendTwo = userStorage.addUser(new User(null, "friends3@yandex.ru", "Friends", "friends3KIR",
+                testBirthday));
+        User stranger = userStorage.addUser(new User(null, "friends4@yandex.ru", "Friends", "friends4KIR",
+                testBirthday));
+        friendshipStorage.add(new Friendship(userTest.getId(), friendOne.getId()));
+        friendshipStorage.add(new Friendship(userTest.getId(), friendTwo.getId()));
+        likeStorage.addLike(filmMore.getId(), friendOne.getId());
+        likeStorage.addLike(filmMore.getId(), friendTwo.getId());
+        likeStorage.addLike(filmLess.getId(), friendTwo.getId());
+        likeStorage.addLike(filmLess.getId(), stranger.getId());
+        likeStorage.addLike(filmLess.getId(), userTest.getId());
+        assertThat(filmService.findPopularWithFriends(userTest.getId().toString(), "10"))
+                .extracting(Film::getId)
+                .containsExactly(filmMore.getId(), filmLess.getId());
+        assertThat(filmService.findPopularWithFriends(userTest.getId().toString(), "1"))
+                .extracting(Film::getId)
+                .containsExactly(filmMore.getId());
+        assertThat(filmService.findPopularWithFriends(stranger.getId().toString(), "10")).isEmpty();
+        filmStorage.deleteFilm(filmLess);
+        filmStorage.deleteFilm(filmMore);
+        for (User user : List.of(userTest, friendOne, friendTwo, stranger)) {
+            userStorage.deleteUser(user);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
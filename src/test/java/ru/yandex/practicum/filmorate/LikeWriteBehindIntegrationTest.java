@@ -0,0 +1,316 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exception.WorkApplicationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmLeaderboard;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.FilmSimilarity;
+import ru.yandex.practicum.filmorate.service.ImportService;
+import ru.yandex.practicum.filmorate.service.LikeWriteBehind;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "filmorate.likes.write-behind.enabled=true",
+        "filmorate.likes.write-behind.flush-interval=1h",
+        "filmorate.likes.write-behind.journal=target/likes-write-behind-test.log"
+})
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class LikeWriteBehindIntegrationTest {
+
+    private final FilmService filmService;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final LikeWriteBehind likeWriteBehind;
+    private final FilmLeaderboard filmLeaderboard;
+    private final FilmSimilarity filmSimilarity;
+    private final ImportService importService;
+    private final JdbcTemplate jdbcTemplate;
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void shouldShowQueuedLikeAndCancelItBeforeFlush() {
+        Film film = filmStorage.addFilm(new Film(null, "Отложенное кино", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        User user = userStorage.addUser(new User(null, "queue@yandex.ru", "Queue", "queueKIR",
+                LocalDate.of(1982, 10, 9)));
+        String filmId = film.getId().toString();
+        String userId = user.getId().toString();
+
+        Film liked = filmService.addLikeFilm(filmId, userId);
+        assertThat(liked.getLikes()).containsExactly(user.getId());
+        assertThat(filmService.findFilmById(filmId).get().getLikes()).containsExactly(user.getId());
+        assertFalse(likeStorage.isExist(film.getId(), user.getId()));
+        assertThat(likeWriteBehind.getPendingCount()).isEqualTo(1);
+        assertThrows(WorkApplicationException.class, () -> filmService.addLikeFilm(filmId, userId));
+
+        Film unliked = filmService.removeLikeFilm(filmId, userId);
+        assertThat(unliked.getLikes()).isEmpty();
+        assertThat(likeWriteBehind.getPendingCount()).isZero();
+        assertFalse(likeStorage.isExist(film.getId(), user.getId()));
+    }
+
+    @Test
+    void shouldFlushQueuedLikesInBackground() throws IOException, InterruptedException {
+        Film film = addFilm("Фоновая запись");
+        User first = addUser("flush1");
+        User second = addUser("flush2");
+        LikeWriteBehind writeBehind = newWriteBehind("flush.log", 10, 2);
+        writeBehind.start();
+        try {
+            assertTrue(writeBehind.accept(film.getId(), first.getId()));
+            assertTrue(writeBehind.accept(film.getId(), second.getId()));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (writeBehind.getPendingCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(writeBehind.getPendingCount()).isZero();
+            assertThat(likeStorage.getLikeByIdFilm(film.getId()))
+                    .containsExactlyInAnyOrder(first.getId(), second.getId());
+            assertThat(likesCount(film.getId())).isEqualTo(2);
+            assertThat(Files.size(journalDirectory.resolve("flush.log"))).isZero();
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    void shouldReplayJournalAfterRestart() throws IOException, InterruptedException {
+        Film film = addFilm("Кино из журнала");
+        User kept = addUser("replay1");
+        User cancelled = addUser("replay2");
+        LikeWriteBehind crashed = newWriteBehind("crashed.log", 10, 10);
+        crashed.start();
+        assertTrue(crashed.accept(film.getId(), kept.getId()));
+        assertTrue(crashed.accept(film.getId(), cancelled.getId()));
+        assertTrue(crashed.cancel(film.getId(), cancelled.getId()));
+        Path journal = journalDirectory.resolve("restart.log");
+        Files.copy(journalDirectory.resolve("crashed.log"), journal);
+        crashed.cancel(film.getId(), kept.getId());
+        crashed.stop();
+        assertFalse(likeStorage.isExist(film.getId(), kept.getId()));
+
+        LikeWriteBehind restarted = newWriteBehind("restart.log", 10, 10);
+        restarted.start();
+        try {
+            assertThat(restarted.getPendingCount()).isZero();
+            assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(kept.getId());
+            assertThat(likesCount(film.getId())).isEqualTo(1);
+            assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKey(film.getId());
+            assertThat(Files.size(journal)).isZero();
+        } finally {
+            restarted.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteLikeImmediatelyWhenQueueIsFull() throws IOException, InterruptedException {
+        Film film = addFilm("Полная очередь");
+        User queued = addUser("full1");
+        User direct = addUser("full2");
+        LikeWriteBehind writeBehind = newWriteBehind("full.log", 1, 10);
+        writeBehind.start();
+        try {
+            assertTrue(writeBehind.accept(film.getId(), queued.getId()));
+            assertTrue(writeBehind.accept(film.getId(), direct.getId()));
+            assertThat(writeBehind.getPendingCount()).isEqualTo(1);
+            assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(direct.getId());
+            assertThat(likesCount(film.getId())).isEqualTo(1);
+            assertFalse(writeBehind.accept(film.getId(), direct.getId()));
+        } finally {
+            writeBehind.stop();
+        }
+        assertThat(likeStorage.getLikeByIdFilm(film.getId()))
+                .containsExactlyInAnyOrder(queued.getId(), direct.getId());
+    }
+
+    @Test
+    void shouldWriteLikeImmediatelyAfterStop() throws IOException, InterruptedException {
+        Film film = addFilm("Остановленная очередь");
+        User queued = addUser("stopped1");
+        User late = addUser("stopped2");
+        LikeWriteBehind writeBehind = newWriteBehind("stopped.log", 10, 10);
+        writeBehind.start();
+        assertTrue(writeBehind.accept(film.getId(), queued.getId()));
+
+        writeBehind.stop();
+
+        assertTrue(writeBehind.accept(film.getId(), late.getId()));
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(likeStorage.getLikeByIdFilm(film.getId()))
+                .containsExactlyInAnyOrder(queued.getId(), late.getId());
+        assertThat(likesCount(film.getId())).isEqualTo(2);
+        assertThat(Files.size(journalDirectory.resolve("stopped.log"))).isZero();
+    }
+
+    @Test
+    void shouldRevertLeaderboardForLikesRejectedByDatabase() throws IOException, InterruptedException {
+        Film film = filmService.createFilm(new Film(null, "Отклонённые лайки", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        User accepted = addUser("reject1");
+        User deleted = addUser("reject2");
+        LikeWriteBehind writeBehind = newWriteBehind("rejected.log", 10, 10);
+        writeBehind.start();
+        assertTrue(writeBehind.accept(film.getId(), accepted.getId()));
+        assertTrue(writeBehind.accept(film.getId(), deleted.getId()));
+        filmLeaderboard.changeLikes(film.getId(), 2);
+        userStorage.deleteUser(deleted);
+
+        writeBehind.stop();
+
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(accepted.getId());
+        assertThat(likesCount(film.getId())).isEqualTo(1);
+        assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKey(film.getId());
+    }
+
+    @Test
+    void shouldRevertLeaderboardForQueuedLikesImportedBeforeFlush() throws IOException, InterruptedException {
+        Film film = filmService.createFilm(new Film(null, "Импорт до записи", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        User user = addUser("imported1");
+        LikeWriteBehind writeBehind = newWriteBehind("imported.log", 10, 10);
+        writeBehind.start();
+        assertTrue(writeBehind.accept(film.getId(), user.getId()));
+        filmLeaderboard.changeLikes(film.getId(), 1);
+        String ndjson = "{\"filmId\":" + film.getId() + ",\"userId\":" + user.getId() + "}\n";
+        importService.importNdjson("likes", new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        writeBehind.stop();
+
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(user.getId());
+        assertThat(likesCount(film.getId())).isEqualTo(1);
+        assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKey(film.getId());
+    }
+
+    @Test
+    void shouldNotRetryLikesCommittedBeforeFailure() throws IOException, InterruptedException {
+        Film film = filmService.createFilm(new Film(null, "Сбой записи лайков", "Описание",
+                LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+        User committed = addUser("retry1");
+        User deleted = addUser("retry2");
+        User failed = addUser("retry3");
+        Like failing = new Like(film.getId(), failed.getId());
+        AtomicBoolean failOnce = new AtomicBoolean(true);
+        LikeStorage flakyStorage = (LikeStorage) Proxy.newProxyInstance(LikeStorage.class.getClassLoader(),
+                new Class<?>[]{LikeStorage.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("addLikesIfAbsent") && args[0].equals(List.of(failing))
+                            && failOnce.getAndSet(false)) {
+                        throw new TransientDataAccessResourceException("Соединение потеряно");
+                    }
+                    try {
+                        return method.invoke(likeStorage, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        LikeWriteBehind writeBehind = new LikeWriteBehind(flakyStorage, filmLeaderboard, filmSimilarity, true, 10, 3,
+                Duration.ofHours(1), journalDirectory.resolve("retry.log").toString(), true);
+        writeBehind.start();
+        assertTrue(writeBehind.accept(film.getId(), committed.getId()));
+        assertTrue(writeBehind.accept(film.getId(), deleted.getId()));
+        filmLeaderboard.changeLikes(film.getId(), 3);
+        userStorage.deleteUser(deleted);
+        assertTrue(writeBehind.accept(film.getId(), failed.getId()));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (failOnce.get() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        while (writeBehind.getPendingCount() > 1 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(writeBehind.getPendingCount()).isEqualTo(1);
+        assertThat(likeStorage.getLikeByIdFilm(film.getId())).containsExactly(committed.getId());
+
+        writeBehind.stop();
+
+        assertThat(writeBehind.getPendingCount()).isZero();
+        assertThat(likeStorage.getLikeByIdFilm(film.getId()))
+                .containsExactlyInAnyOrder(committed.getId(), failed.getId());
+        assertThat(filmLeaderboard.findInconsistencies()).doesNotContainKey(film.getId());
+    }
+
+    @Test
+    void shouldCountCoLikesOfQueuedLikesOnceAfterFlush() throws IOException, InterruptedException {
+        Film first = addFilm("Похожее в очереди 1");
+        Film popular = addFilm("Похожее в очереди 2");
+        Film queued = addFilm("Похожее в очереди 3");
+        for (String login : List.of("similar1", "similar2", "similar3")) {
+            User user = addUser(login);
+            likeStorage.addLike(first.getId(), user.getId());
+            likeStorage.addLike(popular.getId(), user.getId());
+        }
+        filmSimilarity.rebuild();
+        User firstQueued = addUser("similar4");
+        User secondQueued = addUser("similar5");
+        LikeWriteBehind writeBehind = newWriteBehind("similar.log", 10, 10);
+        writeBehind.start();
+        assertTrue(writeBehind.accept(first.getId(), firstQueued.getId()));
+        assertTrue(writeBehind.accept(queued.getId(), firstQueued.getId()));
+        assertTrue(writeBehind.accept(first.getId(), secondQueued.getId()));
+        assertTrue(writeBehind.accept(queued.getId(), secondQueued.getId()));
+        assertThat(filmSimilarity.findSimilar(queued.getId(), 10)).isEmpty();
+
+        writeBehind.stop();
+
+        long[] similarToFirst = filmSimilarity.findSimilar(first.getId(), 10);
+        long[] similarToQueued = filmSimilarity.findSimilar(queued.getId(), 10);
+        assertThat(similarToFirst).containsExactly(popular.getId(), queued.getId());
+        assertThat(similarToQueued).containsExactly(first.getId());
+        filmSimilarity.rebuild();
+        assertThat(filmSimilarity.findSimilar(first.getId(), 10)).containsExactly(similarToFirst);
+        assertThat(filmSimilarity.findSimilar(queued.getId(), 10)).containsExactly(similarToQueued);
+    }
+
+    private LikeWriteBehind newWriteBehind(String journal, int capacity, int flushSize) {
+        return new LikeWriteBehind(likeStorage, filmLeaderboard, filmSimilarity, true, capacity, flushSize,
+                Duration.ofHours(1),
+                journalDirectory.resolve(journal).toString(), true);
+    }
+
+    private Film addFilm(String name) {
+        return filmStorage.addFilm(new Film(null, name, "Описание", LocalDate.of(2000, 1, 1), 100, new Mpa(1L)));
+    }
+
+    private User addUser(String login) {
+        return userStorage.addUser(new User(null, login + "@yandex.ru", "Queue", login + "KIR",
+                LocalDate.of(1982, 10, 9)));
+    }
+
+    private long likesCount(long filmId) {
+        return jdbcTemplate.queryForObject("SELECT LIKES_COUNT FROM FILMS WHERE FILM_ID = ?", Long.class, filmId);
+    }
+}
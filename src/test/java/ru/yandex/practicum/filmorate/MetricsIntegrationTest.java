@@ -0,0 +1,127 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.exception.ObjectNotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class MetricsIntegrationTest {
+
+    private static final String SELECT_USER = "SELECT * FROM USERS WHERE USER_ID = ?";
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+    private final UserStorage userStorage;
+    private final MpaStorage mpaStorage;
+
+    @Test
+    void shouldTimeSqlStatementsAndStorageMethods() {
+        User user = userStorage.addUser(new User(null, "metrics@yandex.ru", "Metrics", "metricsKIR",
+                LocalDate.of(1990, 1, 1)));
+        long sqlCount = timerCount("filmorate.sql", "statement", SELECT_USER, "outcome", "success");
+        long storageCount = timerCount("filmorate.storage",
+                "class", "UserDbStorage", "method", "findUserById", "exception", "none");
+        assertThat(userStorage.findUserById(user.getId())).isPresent();
+        assertThat(timerCount("filmorate.sql", "statement", SELECT_USER, "outcome", "success"))
+                .isEqualTo(sqlCount + 1);
+        assertThat(meterRegistry.get("filmorate.sql")
+                .tags("statement", SELECT_USER, "outcome", "success")
+                .timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(timerCount("filmorate.storage",
+                "class", "UserDbStorage", "method", "findUserById", "exception", "none"))
+                .isEqualTo(storageCount + 1);
+        userStorage.deleteUser(user);
+    }
+
+    @Test
+    void shouldRecordServiceTimerAndQueryCountPerRequest() throws Exception {
+        User user = userStorage.addUser(new User(null, "metrics2@yandex.ru", "Metrics", "metrics2KIR",
+                LocalDate.of(1990, 1, 1)));
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+        assertThat(meterRegistry.get("filmorate.service")
+                .tag("class", "UserService")
+                .tag("method", "findUserById")
+                .timer()
+                .count()).isPositive();
+        DistributionSummary queries = meterRegistry.get("filmorate.http.queries")
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .summary();
+        assertThat(queries.count()).isPositive();
+        assertThat(queries.max()).isGreaterThanOrEqualTo(1);
+        assertThat(queries.takeSnapshot().histogramCounts()).isNotEmpty();
+        Timer dbTime = meterRegistry.get("filmorate.http.db.time")
+                .tag("method", "GET")
+                .tag("uri", "/users/{userId}")
+                .timer();
+        assertThat(dbTime.count()).isPositive();
+        userStorage.deleteUser(user);
+    }
+
+    @Test
+    void shouldRejectInvalidBodyAndCountBeanValidationFailure() throws Exception {
+        double before = validationFailures("bean-validation");
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"not-an-email\",\"login\":\"metrics3KIR\",\"birthday\":\"1990-01-01\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("400"));
+        assertThat(validationFailures("bean-validation")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void shouldCountCacheHitsAndMisses() {
+        FunctionCounter hits = meterRegistry.get("filmorate.cache.gets")
+                .tag("cache", "mpa")
+                .tag("result", "hit")
+                .functionCounter();
+        FunctionCounter misses = meterRegistry.get("filmorate.cache.gets")
+                .tag("cache", "mpa")
+                .tag("result", "miss")
+                .functionCounter();
+        double hitsBefore = hits.count();
+        double missesBefore = misses.count();
+        assertThat(mpaStorage.findMpaById(1L)).isPresent();
+        assertThrows(ObjectNotFoundException.class, () -> mpaStorage.findMpaById(Long.MAX_VALUE));
+        assertThat(hits.count()).isEqualTo(hitsBefore + 1);
+        assertThat(misses.count()).isEqualTo(missesBefore + 1);
+    }
+
+    private double validationFailures(String source) {
+        Counter counter = meterRegistry.find("filmorate.validation.failures").tag("source", source).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private long timerCount(String name, String... tags) {
+        Timer timer = meterRegistry.find(name).tags(tags).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
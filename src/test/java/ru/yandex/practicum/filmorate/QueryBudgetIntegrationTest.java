@@ -0,0 +1,63 @@
+package ru.yandex.practicum.filmorate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.metrics.QueryStatisticsHeaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.db.budget.queries=0",
+        "filmorate.db.budget.time=10s",
+        "filmorate.db.budget.strict=true"})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class QueryBudgetIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final MeterRegistry meterRegistry;
+
+    @Test
+    void shouldReportDbStatisticsInHeaders() throws Exception {
+        mockMvc.perform(get("/mpa"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(QueryStatisticsHeaders.DB_QUERIES_HEADER, "0"))
+                .andExpect(header().exists(QueryStatisticsHeaders.DB_TIME_HEADER));
+    }
+
+    @Test
+    void shouldFailRequestOverBudgetInStrictMode() throws Exception {
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("500"))
+                .andExpect(jsonPath("$.description", containsString("превысил бюджет БД")))
+                .andExpect(header().exists(QueryStatisticsHeaders.DB_QUERIES_HEADER));
+        assertThat(meterRegistry.counter("filmorate.http.queries.over.budget", "method", "GET", "uri", "/users")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotCountStreamingEndpoints() throws Exception {
+        MvcResult started = mockMvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().doesNotExist(QueryStatisticsHeaders.DB_QUERIES_HEADER))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        assertThat(meterRegistry.find("filmorate.http.queries").tag("uri", "/users/stream").summary()).isNull();
+    }
+}
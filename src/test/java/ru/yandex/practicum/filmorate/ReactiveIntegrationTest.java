@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.ReactiveFilmStorage;
+import ru.yandex.practicum.filmorate.storage.friendship.FriendshipStorage;
+import ru.yandex.practicum.filmorate.storage.like.LikeStorage;
+import ru.yandex.practicum.filmorate.storage.user.ReactiveUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "filmorate.r2dbc.pool.max-size=1",
+        "filmorate.r2dbc.pool.max-acquire-time=2s"
+})
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class ReactiveIntegrationTest {
+
+    private final MockMvc mockMvc;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final FriendshipStorage friendshipStorage;
+    private final ReactiveFilmStorage reactiveFilmStorage;
+    private final ReactiveUserStorage reactiveUserStorage;
+    private final LocalDate testBirthday = LocalDate.of(1982, 10, 9);
+
+    @Test
+    void shouldReadFilmsWrittenThroughJdbc() throws Exception {
+        Film film = filmStorage.addFilm(new Film(null, "Реактивное кино", "Описание",
+                LocalDate.of(2002, 5, 5), 100, new Mpa(2L)));
+        filmStorage.replaceGenresFilm(film.getId(), List.of(1L, 3L));
+        User user = userStorage.addUser(new User(null, "reactive@yandex.ru", "Reactive", "reactiveKIR",
+                testBirthday));
+        likeStorage.addLike(film.getId(), user.getId());
+
+        Film read = reactiveFilmStorage.findFilmWithDetailsById(film.getId()).block();
+        assertThat(read).isNotNull();
+        assertThat(read.getName()).isEqualTo("Реактивное кино");
+        assertThat(read.getMpa().getId()).isEqualTo(2L);
+        assertThat(read.getGenres()).extracting(Genre::getId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(read.getLikes()).containsExactly(user.getId());
+        assertThat(reactiveFilmStorage.getFilmsWithDetails().map(Film::getId).collectList().block())
+                .contains(film.getId());
+
+        MvcResult started = mockMvc.perform(get("/reactive/films/" + film.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Реактивное кино"))
+                .andExpect(jsonPath("$.likes[0]").value(user.getId()));
+
+        filmStorage.deleteFilm(film);
+        userStorage.deleteUser(user);
+    }
+
+    @Test
+    void shouldStreamFilmPagesWithSingleConnection() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            films.add(new Film(null, "Реактивная страница " + i, "Описание",
+                    LocalDate.of(2002, 5, 5), 100, new Mpa(1L)));
+        }
+        List<Film> created = filmStorage.addFilms(films);
+        filmStorage.addGenreToFilm(created.get(500).getId(), 2L);
+
+        List<Film> read = reactiveFilmStorage.getFilmsWithDetails()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertThat(read).extracting(Film::getId)
+                .containsAll(created.stream().map(Film::getId).collect(Collectors.toList()))
+                .isSorted();
+        assertThat(read).filteredOn(film -> film.getId().equals(created.get(500).getId()))
+                .singleElement()
+                .satisfies(film -> assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(2L));
+
+        created.forEach(filmStorage::deleteFilm);
+    }
+
+    @Test
+    void shouldReadFriendsWrittenThroughJdbc() throws Exception {
+        User user = userStorage.addUser(new User(null, "reactive1@yandex.ru", "Reactive", "reactive1KIR",
+                testBirthday));
+        User friend = userStorage.addUser(new User(null, "reactive2@yandex.ru", "Reactive", "reactive2KIR",
+                testBirthday));
+        User other = userStorage.addUser(new User(null, "reactive3@yandex.ru", "Reactive", "reactive3KIR",
+                testBirthday));
+        friendshipStorage.add(new Friendship(user.getId(), friend.getId()));
+        friendshipStorage.add(new Friendship(other.getId(), friend.getId()));
+
+        assertThat(reactiveUserStorage.findUserById(user.getId()).map(User::getEmail).block())
+                .isEqualTo("reactive1@yandex.ru");
+        assertThat(reactiveUserStorage.findFriends(user.getId()).map(User::getId).collectList().block())
+                .containsExactly(friend.getId());
+        assertThat(reactiveUserStorage.findCommonFriends(user.getId(), other.getId())
+                .map(User::getId).collectList().block())
+                .containsExactly(friend.getId());
+
+        MvcResult started = mockMvc.perform(get("/reactive/users/" + user.getId() + "/friends"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(friend.getId()));
+
+        for (User created : List.of(user, friend, other)) {
+            userStorage.deleteUser(created);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.yandex.practicum.filmorate.metrics.QueryStatistics;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Mpa;
+import ru.yandex.practicum.filmorate.storage.ReferenceCache;
+import ru.yandex.practicum.filmorate.storage.genre.GenreCachedStorage;
+import ru.yandex.practicum.filmorate.storage.mpa.MpaCachedStorage;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+@RequiredArgsConstructor(onConstructor__ = @Autowired)
+class ReferenceCacheIntegrationTest {
+
+    private final MpaCachedStorage mpaCachedStorage;
+    private final GenreCachedStorage genreCachedStorage;
+
+    @AfterEach
+    void afterEach() {
+        mpaCachedStorage.invalidateAll();
+        genreCachedStorage.invalidateAll();
+    }
+
+    @Test
+    void shouldServeMpaAndGenresWithoutDb() {
+        long mpaHits = mpaCachedStorage.getHits();
+        long genreHits = genreCachedStorage.getHits();
+        int statements = countStatements(() -> {
+            assertThat(mpaCachedStorage.findMpaById(3L)).hasValue(new Mpa(3L, "PG-13"));
+            assertThat(mpaCachedStorage.findAllMpa()).hasSize(5);
+            assertThat(genreCachedStorage.findGenreById(1L)).map(Genre::getId).hasValue(1L);
+            assertThat(genreCachedStorage.findAllGenres()).hasSize(6);
+            return null;
+        });
+        assertThat(statements).isZero();
+        assertThat(mpaCachedStorage.getHits()).isEqualTo(mpaHits + 2);
+        assertThat(genreCachedStorage.getHits()).isEqualTo(genreHits + 2);
+    }
+
+    @Test
+    void shouldReloadInvalidatedValueFromDb() {
+        mpaCachedStorage.invalidate(3L);
+        long misses = mpaCachedStorage.getMisses();
+        assertThat(countStatements(() -> mpaCachedStorage.findMpaById(3L))).isEqualTo(1);
+        assertThat(mpaCachedStorage.getMisses()).isEqualTo(misses + 1);
+        assertThat(countStatements(() -> mpaCachedStorage.findMpaById(3L))).isZero();
+        assertThat(countStatements(mpaCachedStorage::findAllMpa)).isEqualTo(1);
+        assertThat(mpaCachedStorage.getMisses()).isEqualTo(misses + 2);
+        assertThat(countStatements(mpaCachedStorage::findAllMpa)).isZero();
+        genreCachedStorage.invalidate(2L);
+        assertThat(countStatements(() -> genreCachedStorage.findGenreById(2L))).isEqualTo(1);
+        assertThat(countStatements(() -> genreCachedStorage.findGenreById(2L))).isZero();
+    }
+
+    @Test
+    void shouldNotShareCachedInstances() {
+        String comedy = genreCachedStorage.findGenreById(1L).orElseThrow().getName();
+        mpaCachedStorage.findMpaById(1L).orElseThrow().setName("Изменено");
+        mpaCachedStorage.findAllMpa().get(0).setName("Изменено");
+        genreCachedStorage.findGenreById(1L).orElseThrow().setName("Изменено");
+        genreCachedStorage.findAllGenres().get(0).setName("Изменено");
+        assertThat(mpaCachedStorage.findMpaById(1L)).hasValue(new Mpa(1L, "G"));
+        assertThat(mpaCachedStorage.findAllMpa().get(0).getName()).isEqualTo("G");
+        assertThat(genreCachedStorage.findGenreById(1L)).hasValue(new Genre(1L, comedy));
+        assertThat(genreCachedStorage.findAllGenres().get(0).getName()).isEqualTo(comedy);
+    }
+
+    @Test
+    void shouldCountHitsAndMissesOfReferenceCache() {
+        ReferenceCache<Genre> cache = new ReferenceCache<>(Genre::getId,
+                genre -> new Genre(genre.getId(), genre.getName()));
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getAll()).isNull();
+        Genre drama = new Genre(2L, "Драма");
+        cache.load(List.of(new Genre(1L, "Комедия"), drama));
+        drama.setName("Изменено");
+        assertThat(cache.get(2L)).isEqualTo(new Genre(2L, "Драма"));
+        assertThat(cache.get(-1L)).isNull();
+        assertThat(cache.getAll()).hasSize(2);
+        cache.put(new Genre(3L, "Мультфильм"));
+        assertThat(cache.getAll()).isNull();
+        assertThat(cache.get(3L)).isEqualTo(new Genre(3L, "Мультфильм"));
+        cache.invalidate(1L);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getMisses()).isEqualTo(5);
+    }
+
+    private static int countStatements(Supplier<?> action) {
+        QueryStatistics statistics = QueryStatistics.start();
+        try {
+            action.get();
+        } finally {
+            QueryStatistics.stop();
+        }
+        return statistics.getStatements();
+    }
+}
@@ -128,4 +128,15 @@ class UserIntegrationTest {
         Optional<User> userOptional = userStorage.findUserById(id);
         assertFalse(userOptional.isPresent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldPageUsersByKeyset() {
+        User first = userStorage.addUser(new User(null, "page@yandex.ru", testName, "pageKIR", testBirthday));
+        User second = userStorage.addUser(new User(null, "page2@yandex.ru", testOneName, "page2KIR", testBirthday));
+        List<User> firstPage = userStorage.getUsersPage(first.getId() - 1, 1);
+        assertThat(firstPage).extracting(User::getId).containsExactly(first.getId());
+        List<User> secondPage = userStorage.getUsersPage(first.getId(), 10);
+        assertThat(secondPage).extracting(User::getId).containsExactly(second.getId());
+        assertThat(userStorage.getUsersPage(second.getId(), 10)).isEmpty();
+    }
+}